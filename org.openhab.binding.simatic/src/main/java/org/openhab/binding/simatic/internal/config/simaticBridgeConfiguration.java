@@ -41,6 +41,21 @@ public class SimaticBridgeConfiguration {
      */
     public String communicationType = "S7";
 
+    /**
+     * Count of connections used for reading
+     */
+    public int connections = 1;
+
+    /**
+     * Connection transport (Socket,NIO)
+     */
+    public String transport = "Socket";
+
+    /**
+     * Time commands are collected before written together [ms]
+     */
+    public int writeBatchWindow = 10;
+
     /**
      * Is device S7-200 PLC (CP242)
      */
@@ -13,7 +13,15 @@
 package org.openhab.binding.simatic.internal.handler;
 
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -22,9 +30,12 @@ import org.openhab.binding.simatic.internal.SimaticBindingConstants;
 import org.openhab.binding.simatic.internal.config.SimaticBridgeConfiguration;
 import org.openhab.binding.simatic.internal.simatic.SimaticChannel;
 import org.openhab.binding.simatic.internal.simatic.SimaticGenericDevice;
+import org.openhab.binding.simatic.internal.simatic.SimaticImageSnapshot;
+import org.openhab.binding.simatic.internal.simatic.SimaticPlanStore;
 import org.openhab.binding.simatic.internal.simatic.SimaticTCP;
 import org.openhab.binding.simatic.internal.simatic.SimaticTCP200;
 import org.openhab.binding.simatic.internal.simatic.SimaticUpdateMode;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
@@ -53,11 +64,25 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
     public @Nullable SimaticGenericDevice connection = null;
 
     // bridge channels
-    private @Nullable ChannelUID chTagCount, chRequests, chBytes;
+    private @Nullable ChannelUID chTagCount, chRequests, chBytes, chCommandLatency, chCommandQueue,
+            chCommandsCoalesced, chCommandsRejected, chCycleJitter, chDispatchQueue, chDispatchLag;
 
     private int channelCount = 0;
-    /** Initial scheduler delay */
-    private static final long INIT_SECONDS = 5;
+    private int stateChannelCount = 0;
+    /** Delay of configuration update. Updates requested by things in the meantime are applied together [ms] */
+    private static final long CONFIG_DELAY = 200;
+    /** Maximum delay of configuration update since first request [ms] */
+    private static final long CONFIG_DELAY_MAX = 2000;
+    /** Directory of persisted read plans in userdata */
+    private static final String PLAN_FOLDER = "simatic";
+
+    private @Nullable ScheduledFuture<?> configJob = null;
+    private long configRequested = 0;
+    private final Object configLock = new Object();
+    /** Handlers with changed channels since last configuration update */
+    private final Set<SimaticGenericHandler> configChanged = new LinkedHashSet<SimaticGenericHandler>();
+    /** Channels of handlers set into connection */
+    private final Map<SimaticGenericHandler, List<SimaticChannel>> registered = new HashMap<>();
 
     /**
      * Constructor
@@ -76,6 +101,20 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
                 chRequests = channel.getUID();
             } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_BYTES)) {
                 chBytes = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_COMMAND_LATENCY)) {
+                chCommandLatency = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_COMMAND_QUEUE)) {
+                chCommandQueue = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_COMMANDS_COALESCED)) {
+                chCommandsCoalesced = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_COMMANDS_REJECTED)) {
+                chCommandsRejected = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_CYCLE_JITTER)) {
+                chCycleJitter = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_DISPATCH_QUEUE)) {
+                chDispatchQueue = channel.getUID();
+            } else if (channel.getChannelTypeUID().equals(SimaticBindingConstants.CHANNEL_TYPE_DISPATCH_LAG)) {
+                chDispatchLag = channel.getUID();
             }
         });
     }
@@ -156,17 +195,23 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
                     SimaticUpdateMode.fromString(config.updateMode));
         } else {
             connection = new SimaticTCP(config.address, config.rack, config.slot, config.communicationType,
-                    config.pollRate, charset, SimaticUpdateMode.fromString(config.updateMode));
+                    config.connections, config.transport, config.pollRate, charset,
+                    SimaticUpdateMode.fromString(config.updateMode));
         }
+        connection.setWriteBatchWindow(config.writeBatchWindow);
+        connection.setPlanStore(new SimaticPlanStore(Paths.get(OpenHAB.getUserDataFolder(), PLAN_FOLDER,
+                getThing().getUID().getAsString().replace(':', '_') + ".plan")));
+        connection.setSnapshot(new SimaticImageSnapshot(Paths.get(OpenHAB.getUserDataFolder(), PLAN_FOLDER,
+                getThing().getUID().getAsString().replace(':', '_') + ".image")));
 
         // react on connection changes
         connection.onConnectionChanged((connected) -> {
             if (connected) {
                 updateProperty(SimaticBindingConstants.PROPERTY_PDU, String.valueOf(connection.getPduSize()));
-                updateProperty(SimaticBindingConstants.PROPERTY_AREAS_COUNT,
-                        String.valueOf(connection.getReadAreas().size()));
-                updateProperty(SimaticBindingConstants.PROPERTY_AREAS,
-                        (connection.getReadAreas().size() == 0) ? "none" : connection.getReadAreas().toString());
+                updateProperty(SimaticBindingConstants.PROPERTY_PARALLEL_JOBS,
+                        String.valueOf(connection.getParallelJobs()));
+                updatePlanProperties();
+                updateProperty(SimaticBindingConstants.PROPERTY_SNAPSHOT, "none");
                 if (connection.info.getPlcName() != null) {
                     updateProperty(SimaticBindingConstants.PROPERTY_PLC_NAME, connection.info.getPlcName());
                 }
@@ -202,20 +247,41 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
             }
         });
 
-        connection.onMetricsUpdated((requests, bytes) -> {
+        connection.onMetricsUpdated((requests, bytes, commandLatency, commandQueue, commandsCoalesced,
+                commandsRejected, cycleJitter, dispatchQueue, dispatchLag) -> {
             updateState(chRequests, new DecimalType(requests));
             updateState(chBytes, new DecimalType(bytes));
+            updateState(chCommandLatency, new DecimalType(commandLatency));
+            updateState(chCommandQueue, new DecimalType(commandQueue));
+            updateState(chCommandsCoalesced, new DecimalType(commandsCoalesced));
+            updateState(chCommandsRejected, new DecimalType(commandsRejected));
+            updateState(chCycleJitter, new DecimalType(cycleJitter));
+            updateState(chDispatchQueue, new DecimalType(dispatchQueue));
+            updateState(chDispatchLag, new DecimalType(dispatchLag));
         });
 
         // temporarily status
         updateStatus(ThingStatus.UNKNOWN);
 
-        // background initialization
-        scheduler.schedule(() -> {
+        // channels of things initialized before bridge are set into new connection
+        synchronized (configLock) {
+            registered.clear();
+            channelCount = 0;
+            stateChannelCount = 0;
+        }
+        for (Thing th : getThing().getThings()) {
+            var h = th.getHandler();
+            if (h instanceof SimaticGenericHandler) {
+                updateConfig((SimaticGenericHandler) h);
+            }
+        }
+
+        // background initialization on device executor
+        connection.getScheduler().execute(() -> {
             if (!connection.open()) {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
             }
-        }, INIT_SECONDS, TimeUnit.SECONDS);
+        });
     }
 
     @Override
@@ -231,6 +297,13 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
 
     @Override
     public void dispose() {
+        synchronized (this) {
+            var job = configJob;
+            if (job != null) {
+                job.cancel(false);
+                configJob = null;
+            }
+        }
         if (connection != null) {
             connection.dispose();
             connection = null;
@@ -256,46 +329,128 @@ public class SimaticBridgeHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Update bridge configuration by all things channels
+     * Update properties describing current read plan
      */
-    public void updateConfig() {
-        int stateChannelCount = 0;
-        channelCount = 0;
-
-        for (Thing th : getThing().getThings()) {
-            var h = ((SimaticGenericHandler) th.getHandler());
-            if (h == null) {
+    @SuppressWarnings("null")
+    private void updatePlanProperties() {
+        var c = connection;
+        if (c == null) {
+            return;
+        }
+        int areasCount = 0;
+        int requestsCount = 0;
+        StringBuilder areas = new StringBuilder();
+        StringBuilder plan = new StringBuilder();
+        StringBuilder cost = new StringBuilder();
+        for (var tier : c.getReadPlan().getTiers()) {
+            if (tier.size() == 0) {
                 continue;
             }
-            channelCount += h.channels.size();
-            for (SimaticChannel ch : h.channels.values()) {
-                if (ch.getStateAddress() != null) {
-                    stateChannelCount++;
-                }
+            final String interval = tier.getInterval() > 0 ? tier.getInterval() + "ms" : "cycle";
+            areasCount += tier.size();
+            requestsCount += tier.getRequests().size();
+            if (areas.length() > 0) {
+                areas.append(";");
+                plan.append(" ");
+                cost.append(", ");
             }
+            areas.append(tier.toString());
+            plan.append(interval).append(":").append(tier.getRequestsString());
+            cost.append(String.format("%s: %d requests, %.2f ms", interval, tier.getRequests().size(),
+                    tier.getEstimatedCost()));
         }
+        updateProperty(SimaticBindingConstants.PROPERTY_AREAS_COUNT, String.valueOf(areasCount));
+        updateProperty(SimaticBindingConstants.PROPERTY_AREAS, (areasCount == 0) ? "none" : areas.toString());
+        updateProperty(SimaticBindingConstants.PROPERTY_READ_PLAN, (requestsCount == 0) ? "none" : plan.toString());
+        updateProperty(SimaticBindingConstants.PROPERTY_READ_PLAN_COST,
+                String.format("%s (%s)", (requestsCount == 0) ? "none" : cost.toString(), c.getCostModel()));
+    }
 
-        var stateItems = new ArrayList<SimaticChannel>(stateChannelCount);
+    /**
+     * Request update of bridge configuration. Requests of things initialized at once are applied together.
+     *
+     * @param handler Handler with changed channels
+     */
+    public synchronized void updateConfig(SimaticGenericHandler handler) {
+        configChanged.add(handler);
+        final long now = System.currentTimeMillis();
+        var job = configJob;
+        if (job == null || job.isDone()) {
+            configRequested = now;
+        } else if (now - configRequested < CONFIG_DELAY_MAX) {
+            job.cancel(false);
+        } else {
+            // pending update is not postponed any more
+            return;
+        }
+        configJob = scheduler.schedule(this::applyConfig, CONFIG_DELAY, TimeUnit.MILLISECONDS);
+    }
 
-        for (Thing th : getThing().getThings()) {
-            var h = ((SimaticGenericHandler) th.getHandler());
-            if (h == null) {
-                continue;
+    /**
+     * Update bridge configuration by channels of changed things
+     */
+    private void applyConfig() {
+        synchronized (configLock) {
+            final List<SimaticGenericHandler> handlers;
+            synchronized (this) {
+                handlers = new ArrayList<SimaticGenericHandler>(configChanged);
+                configChanged.clear();
+            }
+            applyConfigLocked(handlers);
+        }
+    }
+
+    private void applyConfigLocked(List<SimaticGenericHandler> handlers) {
+        final var removed = new ArrayList<SimaticChannel>();
+        final var added = new ArrayList<SimaticChannel>();
+
+        // only channels of changed things are replaced
+        for (SimaticGenericHandler h : handlers) {
+            final List<SimaticChannel> previous = registered.remove(h);
+            if (previous != null) {
+                channelCount -= previous.size();
+                for (SimaticChannel ch : previous) {
+                    if (ch.getStateAddress() != null) {
+                        removed.add(ch);
+                    }
+                }
             }
-            for (SimaticChannel ch : h.channels.values()) {
-                if (ch.getStateAddress() != null) {
-                    stateItems.add(ch);
+            final List<SimaticChannel> current = new ArrayList<SimaticChannel>(h.channels.values());
+            if (!current.isEmpty()) {
+                registered.put(h, current);
+                channelCount += current.size();
+                for (SimaticChannel ch : current) {
+                    if (ch.getStateAddress() != null) {
+                        added.add(ch);
+                    }
                 }
             }
         }
+        stateChannelCount += added.size() - removed.size();
+
+        // enabled things without initialized handler will add their channels later
+        boolean complete = true;
+        for (Thing th : getThing().getThings()) {
+            if (th.getHandler() == null || th.getStatus() == ThingStatus.INITIALIZING) {
+                complete &= !th.isEnabled();
+            }
+        }
 
         if (connection != null) {
             var c = connection;
-            c.setDataAreas(stateItems);
+            c.updateDataAreas(removed, added, complete);
+            if (c.isConnected()) {
+                updatePlanProperties();
+            } else if (c.getSnapshotTime() > 0) {
+                // restored states are not confirmed by device yet
+                updateProperty(SimaticBindingConstants.PROPERTY_SNAPSHOT,
+                        "stale states from " + Instant.ofEpochMilli(c.getSnapshotTime()));
+            }
         }
 
         updateState(chTagCount, new DecimalType(channelCount));
 
-        logger.debug("{} - updating {} channels({} read)", getThing().getLabel(), channelCount, stateChannelCount);
+        logger.debug("{} - updating {} channels({} read), {} removed, {} added", getThing().getLabel(), channelCount,
+                stateChannelCount, removed.size(), added.size());
     }
 }
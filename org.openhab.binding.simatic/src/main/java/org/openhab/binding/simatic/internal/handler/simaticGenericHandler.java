@@ -13,6 +13,8 @@
 package org.openhab.binding.simatic.internal.handler;
 
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -49,6 +51,10 @@ public class SimaticGenericHandler extends BaseThingHandler {
 
     private @Nullable SimaticGenericDevice connection = null;
     private long errorSetTime = 0;
+    /** snapshot time of channels with restored state not read from device yet **/
+    private final Map<ChannelUID, Long> staleChannels = new HashMap<ChannelUID, Long>();
+    /** status description of stale channels last set **/
+    private @Nullable String staleDescription = null;
 
     public final Map<ChannelUID, SimaticChannel> channels = new LinkedHashMap<ChannelUID, SimaticChannel>();
 
@@ -102,7 +108,7 @@ public class SimaticGenericHandler extends BaseThingHandler {
         }
         BridgeHandler handler;
         if (bridge != null && (handler = bridge.getHandler()) != null) {
-            ((SimaticBridgeHandler) handler).updateConfig();
+            ((SimaticBridgeHandler) handler).updateConfig(this);
         }
     }
 
@@ -112,6 +118,9 @@ public class SimaticGenericHandler extends BaseThingHandler {
             ch.clear();
         }
         channels.clear();
+        synchronized (staleChannels) {
+            staleChannels.clear();
+        }
         connection = null;
         logger.debug("{} - device dispose", getThing().getLabel());
 
@@ -119,7 +128,7 @@ public class SimaticGenericHandler extends BaseThingHandler {
         var bridge = getBridge();
         BridgeHandler handler;
         if (bridge != null && (handler = bridge.getHandler()) != null) {
-            ((SimaticBridgeHandler) handler).updateConfig();
+            ((SimaticBridgeHandler) handler).updateConfig(this);
         }
     }
 
@@ -132,12 +141,12 @@ public class SimaticGenericHandler extends BaseThingHandler {
     @Override
     public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
         if (bridgeStatusInfo.getStatus() == ThingStatus.OFFLINE) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE, nextStaleDescription());
             connection = null;
             return;
         }
         if (bridgeStatusInfo.getStatus() != ThingStatus.ONLINE) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, nextStaleDescription());
             connection = null;
             return;
         }
@@ -152,7 +161,7 @@ public class SimaticGenericHandler extends BaseThingHandler {
         // bridge is online take his connection
         connection = b.connection;
 
-        updateStatus(ThingStatus.ONLINE);
+        updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, nextStaleDescription());
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -160,15 +169,20 @@ public class SimaticGenericHandler extends BaseThingHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         logger.debug("{} - Command {}({}) for channel {}", thing.getLabel(), command, command.getClass(), channelUID);
 
-        // get cached values
+        // get values from process image, cached values if not read yet
         if (command instanceof RefreshType) {
             SimaticChannel channel = channels.get(channelUID);
             if (channel == null) {
                 logger.warn("{} - cannot get value to refresh. Channel {} not found.", thing.getLabel(), channelUID);
             } else {
-                State s = channel.getState();
-                if (s != null) {
-                    updateState(channelUID, s);
+                var c = connection;
+                if (c != null) {
+                    c.refreshState(channel, s -> updateState(channelUID, s));
+                } else {
+                    State s = channel.getState();
+                    if (s != null) {
+                        updateState(channelUID, s);
+                    }
                 }
             }
             return;
@@ -238,7 +252,52 @@ public class SimaticGenericHandler extends BaseThingHandler {
 
         // minimum error time left
         if (System.currentTimeMillis() - errorSetTime > 10000) {
-            updateStatus(ThingStatus.ONLINE);
+            updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, nextStaleDescription());
+        }
+    }
+
+    /**
+     * Mark channel state as restored from snapshot or read from device
+     *
+     * @param channelUID
+     * @param time Time of snapshot [ms], zero if state was read from device
+     */
+    public void setStale(ChannelUID channelUID, long time) {
+        synchronized (staleChannels) {
+            if (time > 0) {
+                // status is updated once all restored states are set
+                staleChannels.put(channelUID, time);
+                return;
+            }
+            if (staleChannels.remove(channelUID) == null || !staleChannels.isEmpty()) {
+                return;
+            }
+        }
+        updateStaleStatus();
+    }
+
+    /**
+     * Show count of stale channels in thing status description. Description of thing error is not replaced.
+     */
+    public void updateStaleStatus() {
+        final ThingStatusInfo st = getThing().getStatusInfo();
+        final String description = st.getDescription();
+        if ((st.getStatus() != ThingStatus.ONLINE && st.getStatus() != ThingStatus.OFFLINE)
+                || (description != null && !description.equals(staleDescription))) {
+            return;
+        }
+        updateStatus(st.getStatus(), st.getStatusDetail(), nextStaleDescription());
+    }
+
+    private @Nullable String nextStaleDescription() {
+        synchronized (staleChannels) {
+            long time = Long.MAX_VALUE;
+            for (Long t : staleChannels.values()) {
+                time = Math.min(time, t);
+            }
+            staleDescription = staleChannels.isEmpty() ? null
+                    : staleChannels.size() + " stale states from " + Instant.ofEpochMilli(time);
+            return staleDescription;
         }
     }
 
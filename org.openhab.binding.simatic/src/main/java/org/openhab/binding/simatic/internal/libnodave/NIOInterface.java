@@ -0,0 +1,119 @@
+/*
+ Part of Libnodave, a free communication libray for Siemens S7 300/400 via
+ the MPI adapter 6ES7 972-0CA22-0XAC
+ or  MPI adapter 6ES7 972-0CA33-0XAC
+ or  MPI adapter 6ES7 972-0CA11-0XAC.
+
+ (C) Thomas Hergenhahn (thomas.hergenhahn@web.de) 2002.
+
+ Libnodave is free software; you can redistribute it and/or modify
+ it under the terms of the GNU Library General Public License as published by
+ the Free Software Foundation; either version 2, or (at your option)
+ any later version.
+
+ Libnodave is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU Library General Public License
+ along with this; see the file COPYING.  If not, write to
+ the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+*/
+package org.openhab.binding.simatic.internal.libnodave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interface using non-blocking channel served by shared selector thread. Received frames are queued and consumed by
+ * read in the same way as stream data.
+ *
+ */
+public class NIOInterface extends PLCinterface implements NIOSelector.FrameHandler {
+    private final SocketChannel channel;
+    private final LinkedBlockingDeque<byte[]> frames = new LinkedBlockingDeque<byte[]>();
+    /** frame being read and position in it **/
+    private byte[] frame = null;
+    private int framePos = 0;
+    private volatile IOException closed = null;
+
+    public NIOInterface(SocketChannel channel, String name, int localMPI, int protocol) throws IOException {
+        super();
+        this.channel = channel;
+        this.name = name;
+        this.localMPI = localMPI;
+        this.protocol = protocol;
+        NIOSelector.getInstance().register(channel, this);
+    }
+
+    @Override
+    public void onFrame(byte[] frame) {
+        frames.offer(frame);
+    }
+
+    @Override
+    public void onClosed(IOException ex) {
+        closed = ex;
+    }
+
+    @Override
+    public void write(byte[] b, int start, int len) throws IOException {
+        if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+            Nodave.dump("Interface.write", b, start, len);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(b, start, len);
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                // send buffer is full
+                Thread.yield();
+            }
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int start, int len) throws IOException {
+        int res = 0;
+        while (res < len) {
+            if (frame == null || framePos >= frame.length) {
+                frame = null;
+                if (closed != null && frames.isEmpty()) {
+                    throw closed;
+                }
+                try {
+                    frame = frames.poll(timeout, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (frame == null) {
+                    break;
+                }
+                framePos = 0;
+            }
+            int r = Math.min(len - res, frame.length - framePos);
+            System.arraycopy(frame, framePos, b, start + res, r);
+            framePos += r;
+            res += r;
+        }
+        if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+            System.out.println("Interface.read got " + res + "bytes");
+        }
+        return res;
+    }
+
+    @Override
+    public void clearInput() throws IOException {
+        frames.clear();
+        frame = null;
+    }
+
+    @Override
+    public int disconnectAdapter() throws IOException {
+        NIOSelector.getInstance().unregister(channel);
+        channel.close();
+        return 0;
+    }
+}
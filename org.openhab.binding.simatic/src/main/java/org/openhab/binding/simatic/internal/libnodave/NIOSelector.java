@@ -0,0 +1,216 @@
+/*
+ Part of Libnodave, a free communication libray for Siemens S7 300/400 via
+ the MPI adapter 6ES7 972-0CA22-0XAC
+ or  MPI adapter 6ES7 972-0CA33-0XAC
+ or  MPI adapter 6ES7 972-0CA11-0XAC.
+
+ (C) Thomas Hergenhahn (thomas.hergenhahn@web.de) 2002.
+
+ Libnodave is free software; you can redistribute it and/or modify
+ it under the terms of the GNU Library General Public License as published by
+ the Free Software Foundation; either version 2, or (at your option)
+ any later version.
+
+ Libnodave is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU Library General Public License
+ along with this; see the file COPYING.  If not, write to
+ the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+*/
+package org.openhab.binding.simatic.internal.libnodave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Selector thread shared by all non-blocking connections. Incoming data are split into ISO-on-TCP (TPKT) frames
+ * which are passed to handler of connection.
+ *
+ */
+public class NIOSelector implements Runnable {
+    /**
+     * Receiver of frames of one connection
+     */
+    public interface FrameHandler {
+        /**
+         * Called by selector thread when complete TPKT frame is received
+         */
+        void onFrame(byte[] frame);
+
+        /**
+         * Called by selector thread when connection is closed by partner or fails
+         */
+        void onClosed(IOException ex);
+    }
+
+    private static class Registration {
+        final SocketChannel channel;
+        final FrameHandler handler;
+        ByteBuffer buffer = ByteBuffer.allocate(Nodave.MAX_RAW_LEN);
+
+        Registration(SocketChannel channel, FrameHandler handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+    }
+
+    private static NIOSelector instance = null;
+
+    private final Selector selector;
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<Registration>();
+    private final Thread thread;
+
+    private NIOSelector() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this, "OH-simatic-nio");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Return shared selector. Selector thread is started with first use and started again when it has died.
+     *
+     * @return
+     * @throws IOException
+     */
+    public static synchronized NIOSelector getInstance() throws IOException {
+        if (instance == null || !instance.thread.isAlive()) {
+            instance = new NIOSelector();
+        }
+        return instance;
+    }
+
+    /**
+     * Register connected channel. Channel is switched into non-blocking mode.
+     *
+     * @param channel
+     * @param handler
+     * @throws IOException
+     */
+    public void register(SocketChannel channel, FrameHandler handler) throws IOException {
+        channel.configureBlocking(false);
+        pending.add(new Registration(channel, handler));
+        selector.wakeup();
+    }
+
+    /**
+     * Stop receiving from channel
+     *
+     * @param channel
+     */
+    public void unregister(SocketChannel channel) {
+        SelectionKey key = channel.keyFor(selector);
+        if (key != null) {
+            key.cancel();
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                selector.select();
+
+                Registration r;
+                while ((r = pending.poll()) != null) {
+                    try {
+                        if (r.channel.isOpen()) {
+                            r.channel.register(selector, SelectionKey.OP_READ, r);
+                        }
+                    } catch (IOException | RuntimeException ex) {
+                        close(r, ex);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            receive(key, (Registration) key.attachment());
+                        }
+                    } catch (RuntimeException ex) {
+                        // key cancelled by other thread or failed handler, other connections are served further
+                        key.cancel();
+                        close((Registration) key.attachment(), ex);
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+                    System.out.println("NIOSelector: " + ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Report closed connection to handler
+     */
+    private static void close(Registration r, Exception ex) {
+        try {
+            r.handler.onClosed((ex instanceof IOException) ? (IOException) ex : new IOException(ex));
+        } catch (RuntimeException e) {
+            if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+                System.out.println("NIOSelector: " + e);
+            }
+        }
+    }
+
+    /**
+     * Read available data and pass complete frames to handler
+     */
+    private void receive(SelectionKey key, Registration r) {
+        try {
+            if (r.channel.read(r.buffer) < 0) {
+                throw new IOException("Connection closed by partner");
+            }
+            r.buffer = takeFrames(r.buffer, r.handler);
+        } catch (IOException ex) {
+            key.cancel();
+            close(r, ex);
+        }
+    }
+
+    /**
+     * Pass complete frames of received data to handler. Incomplete frame stays in buffer.
+     *
+     * @param buffer Received data in write mode
+     * @param handler
+     * @return Buffer with rest of data, larger one if frame does not fit into buffer
+     * @throws IOException When frame length is invalid
+     */
+    static ByteBuffer takeFrames(ByteBuffer buffer, FrameHandler handler) throws IOException {
+        while (buffer.position() >= 4) {
+            int len = 0x100 * (buffer.get(2) & 0xFF) + (buffer.get(3) & 0xFF);
+            if (len < 4) {
+                throw new IOException("Invalid TPKT length " + len);
+            }
+            if (len > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(len);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            if (buffer.position() < len) {
+                break;
+            }
+            byte[] frame = new byte[len];
+            buffer.flip();
+            buffer.get(frame);
+            buffer.compact();
+            handler.onFrame(frame);
+        }
+        return buffer;
+    }
+}
@@ -263,30 +263,32 @@ public class PDU {
 
     /**
      * Add values after value header in data, adjust dlen and data count.
+     * Value header is the last one added so values of several variables are counted separately.
      * Needs valid header,parameters,data,dlen
      */
     void addValue(byte[] values) {
-        int valCount = 0x100 * mem[data + 2] + mem[data + 3];
+        int pos = data + dlen - 4; // value header of current variable
+        int valCount = 0x100 * mem[pos + 2] + mem[pos + 3];
         if ((Nodave.Debug & Nodave.DEBUG_PDU) != 0) {
             System.out.println("valCount: " + valCount);
         }
-        if (mem[data + 1] == 4) { // bit data, length is in bits
+        if (mem[pos + 1] == 4) { // bit data, length is in bits
             valCount += 8 * values.length;
-        } else if (mem[data + 1] == 9 || mem[data + 1] == 3) { // byte data, length is in bytes
+        } else if (mem[pos + 1] == 9 || mem[pos + 1] == 3) { // byte data, length is in bytes
             valCount += values.length;
         } else {
             if ((Nodave.Debug & Nodave.DEBUG_PDU) != 0) {
-                System.out.println("unknown data type/length: " + mem[data + 1]);
+                System.out.println("unknown data type/length: " + mem[pos + 1]);
             }
         }
         if (udata == 0) {
-            udata = data + 4;
+            udata = pos + 4;
         }
         udlen += values.length;
         if ((Nodave.Debug & Nodave.DEBUG_PDU) != 0) {
             System.out.println("valCount: " + valCount);
         }
-        Nodave.setUSBEWord(mem, data + 2, valCount);
+        Nodave.setUSBEWord(mem, pos + 2, valCount);
         addData(values);
     }
 
@@ -22,9 +22,11 @@
 */
 package org.openhab.binding.simatic.internal.libnodave;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.SocketTimeoutException;
 
 public class PLCinterface {
     int localMPI; // the adapter's MPI address
@@ -35,6 +37,10 @@ public class PLCinterface {
     OutputStream out;
     InputStream in;
     int wp, rp;
+    /**
+     * read blocks on stream until requested length is received. Stream must have read timeout (SO_TIMEOUT).
+     */
+    boolean blockingRead = false;
 
     public PLCinterface(OutputStream out, InputStream in, String name, int localMPI, int protocol) {
         init(out, in, name, localMPI, protocol);
@@ -64,11 +70,24 @@ public class PLCinterface {
         }
     }
 
+    /**
+     * Set receive mode. In blocking mode read waits on stream for all requested data instead of polling available
+     * data. Stream must have read timeout set, otherwise read can block forever.
+     *
+     * @param blockingRead
+     */
+    public void setBlockingRead(boolean blockingRead) {
+        this.blockingRead = blockingRead;
+    }
+
     public int read(byte[] b, int start, int len) throws IOException {
         int res;
         if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
             System.out.println("Interface.read");
         }
+        if (blockingRead) {
+            return readBlocking(b, start, len);
+        }
         try {
             int retry = 0;
             while ((in.available() <= 0) && (retry < timeout / 5)) {
@@ -108,6 +127,41 @@ public class PLCinterface {
         }
     }
 
+    /**
+     * Read exactly requested length. Returns less data only when timeout expires.
+     */
+    private int readBlocking(byte[] b, int start, int len) throws IOException {
+        int res = 0;
+        try {
+            while (res < len) {
+                int r = in.read(b, start + res, len - res);
+                if (r < 0) {
+                    throw new EOFException("Connection closed by partner");
+                }
+                res += r;
+            }
+        } catch (SocketTimeoutException e) {
+            if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+                System.out.println("Interface.read timeout, got " + res + "bytes");
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Discard pending incoming data
+     *
+     * @throws IOException
+     */
+    public void clearInput() throws IOException {
+        if (in.available() > 0) {
+            in.skip(in.available());
+            if ((Nodave.Debug & Nodave.DEBUG_IFACE) != 0) {
+                System.out.println("Interface input cleared");
+            }
+        }
+    }
+
     public int initAdapter() throws IOException {
         return 0;
     }
@@ -51,10 +51,19 @@ public abstract class S7Connection {
     public byte messageNumber = 0;
 
     static int tmo_normal = 150;
+    /**
+     * parallel jobs requested in PDU negotiation
+     */
+    static final int MAX_PARALLEL_JOBS = 8;
     public int PDUstartIn;
     public int PDUstartOut;
     public Semaphore semaphore;
     public int maxPDUlength;
+    /**
+     * maximal count of requests processed by partner in parallel
+     */
+    public int maxParallelJobs = 1;
+    private int pduNumber = 0;
 
     public S7Connection(PLCinterface ifa) {
         iface = ifa;
@@ -332,6 +341,58 @@ public abstract class S7Connection {
         return errorState;
     }
 
+    /**
+     * Write several variables in one request PDU. Result of each variable is stored in results field of request.
+     *
+     * @param request Variables to write
+     * @return Error of communication
+     * @throws IOException
+     */
+    public int writeMultipleVars(WriteRequest request) throws IOException {
+        int errorState = 0;
+        semaphore.enter();
+        try {
+            PDU p1 = new PDU(msgOut, PDUstartOut);
+
+            p1.prepareWriteRequest();
+            for (int i = 0; i < request.size(); i++) {
+                if (request.bit[i]) {
+                    p1.addBitVarToWriteRequest(request.area[i], request.DBnum[i], request.start[i], request.len[i],
+                            request.buffers[i]);
+                } else {
+                    p1.addVarToWriteRequest(request.area[i], request.DBnum[i], request.start[i], request.len[i],
+                            request.buffers[i]);
+                }
+                request.results[i] = Nodave.RESULT_NO_DATA_RETURNED;
+            }
+
+            errorState = exchange(p1);
+
+            if (errorState == 0) {
+                PDU p2 = new PDU(msgIn, PDUstartIn);
+                errorState = p2.setupReceivedPDU();
+
+                if (errorState == 0) {
+                    if (p2.mem[p2.param + 0] == PDU.FUNC_WRITE) {
+                        // one result byte for each variable
+                        for (int i = 0; i < request.size() && i < p2.dlen; i++) {
+                            int result = p2.mem[p2.data + i] & 0xFF;
+                            request.results[i] = (result == 0xFF) ? Nodave.RESULT_OK : result;
+                        }
+                        if ((Nodave.Debug & Nodave.DEBUG_CONN) != 0) {
+                            System.out.println("writeMultipleVars: " + request.size() + " items");
+                        }
+                    } else {
+                        errorState = Nodave.RESULT_UNEXPECTED_FUNC;
+                    }
+                }
+            }
+        } finally {
+            semaphore.leave();
+        }
+        return errorState;
+    }
+
     /*
      * public int readByteBlock(int area, int areaNumber, int start, int len) {
      * return readBytes(area, areaNumber, start, len, null);
@@ -402,23 +463,196 @@ public abstract class S7Connection {
      * as you do not send further requests.
      */
     public ResultSet execReadRequest(PDU p) throws IOException {
-        PDU p2;
-        int errorState;
-        errorState = exchange(p);
+        try {
+            return evalReadResponse(exchange(p));
+        } finally {
+            semaphore.leave();
+        }
+    }
 
-        p2 = new PDU(msgIn, PDUstartIn);
-        p2.setupReceivedPDU();
-        /*
-         * if (p2.udlen == 0) {
-         * dataPointer = 0;
-         * answLen = 0;
-         * return Nodave.RESULT_CPU_RETURNED_NO_DATA;
-         * }
-         */
+    /**
+     * Read several variables in one request. Each variable is described by the items of the same index in the
+     * passed arrays. Data of successfully read variables are copied into prepared buffers.
+     *
+     * @param area Area types
+     * @param DBnum DB numbers
+     * @param start Start addresses
+     * @param len Lengths of data
+     * @param buffers Buffers for data
+     * @return Result set with error code of each variable
+     * @throws IOException
+     */
+    public ResultSet readMultipleBytes(int[] area, int[] DBnum, int[] start, int[] len, byte[][] buffers)
+            throws IOException {
+        ReadRequest request = new ReadRequest(area.length);
+        for (int i = 0; i < area.length; i++) {
+            request.setVar(i, area[i], DBnum[i], start[i], len[i], buffers[i]);
+        }
+        int res = readMultipleRequests(new ReadRequest[] { request });
+        if (res != Nodave.RESULT_OK) {
+            request.result = new ResultSet();
+            request.result.setErrorState(res);
+        }
+        return request.result;
+    }
+
+    /**
+     * Read several requests. Up to maxParallelJobs requests are sent without waiting for response. Responses are
+     * matched to requests by PDU number. Result of each answered request is stored in its result field and its data
+     * are copied into prepared buffers.
+     *
+     * @param requests Requests to read
+     * @return Error of communication. Requests after failure stay without result.
+     * @throws IOException
+     */
+    public int readMultipleRequests(ReadRequest[] requests) throws IOException {
+        final int window = canPipeline() ? Math.max(1, maxParallelJobs) : 1;
+        final int[] numbers = new int[requests.length];
+        int sent = 0;
+        int received = 0;
+
+        for (ReadRequest request : requests) {
+            request.result = null;
+        }
+
+        semaphore.enter();
+        try {
+            while (received < requests.length) {
+                while (sent < requests.length && sent - received < window) {
+                    ReadRequest request = requests[sent];
+                    PDU p1 = new PDU(msgOut, PDUstartOut);
+                    p1.initReadRequest();
+                    for (int i = 0; i < request.size(); i++) {
+                        p1.addVarToReadRequest(request.area[i], request.DBnum[i], request.start[i], request.len[i]);
+                    }
+                    numbers[sent] = nextPDUNumber();
+                    p1.setNumber(numbers[sent]);
+                    request.sentTime = System.nanoTime();
+                    int res = sendPDU(p1, sent == received);
+                    if (res != Nodave.RESULT_OK) {
+                        return res;
+                    }
+                    sent++;
+                }
+
+                int res = receivePDU();
+                if (res != Nodave.RESULT_OK) {
+                    return res;
+                }
+                int number = new PDU(msgIn, PDUstartIn).getNumber();
+                int index = -1;
+                for (int i = 0; i < sent; i++) {
+                    if (numbers[i] == number && requests[i].result == null) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    if ((Nodave.Debug & Nodave.DEBUG_EXCHANGE) != 0) {
+                        System.out.println("Unexpected PDU number " + number);
+                    }
+                    return Nodave.RESULT_UNEXPECTED_FUNC;
+                }
+                requests[index].receivedTime = System.nanoTime();
+                requests[index].result = evalReadResponse(Nodave.RESULT_OK);
+                copyResults(requests[index]);
+                received++;
+            }
+            return Nodave.RESULT_OK;
+        } finally {
+            semaphore.leave();
+        }
+    }
+
+    /**
+     * Copy data of received request into its buffers. Must be called while the connection is still locked.
+     */
+    private void copyResults(ReadRequest request) {
+        ResultSet rs = request.result;
+        if (rs.getErrorState() != Nodave.RESULT_OK) {
+            return;
+        }
+        if (rs.getNumResults() != request.size()) {
+            rs.setErrorState(Nodave.RESULT_UNEXPECTED_FUNC);
+            return;
+        }
+        for (int i = 0; i < request.size(); i++) {
+            Result r = rs.results[i];
+            if (r.error != Nodave.RESULT_OK) {
+                continue;
+            }
+            if (r.length < request.len[i]) {
+                r.error = Nodave.RESULT_CPU_RETURNED_NO_DATA;
+                continue;
+            }
+            if (request.buffers[i] == null || request.buffers[i].length < request.len[i]) {
+                r.error = Nodave.RESULT_READ_DATA_BUFFER_INSUFFICIENT_SPACE;
+                continue;
+            }
+            System.arraycopy(msgIn, r.bufferStart, request.buffers[i], 0, request.len[i]);
+        }
+    }
+
+    /**
+     * Return next PDU number. Zero is skipped.
+     */
+    private int nextPDUNumber() {
+        pduNumber = (pduNumber + 1) & 0xFFFF;
+        if (pduNumber == 0) {
+            pduNumber = 1;
+        }
+        return pduNumber;
+    }
+
+    /**
+     * Connection is able to send request before response of previous one is received
+     */
+    protected boolean canPipeline() {
+        return false;
+    }
+
+    /**
+     * Send PDU without waiting for response. Default implementation does whole exchange.
+     *
+     * @param p PDU to send
+     * @param clearInput Discard pending incoming data
+     * @return
+     * @throws IOException
+     */
+    protected int sendPDU(PDU p, boolean clearInput) throws IOException {
+        return exchange(p);
+    }
+
+    /**
+     * Receive PDU into incoming buffer. Default implementation expects response already received by sendPDU.
+     *
+     * @return
+     * @throws IOException
+     */
+    protected int receivePDU() throws IOException {
+        return 0;
+    }
+
+    /**
+     * Evaluate read response placed in incoming buffer
+     *
+     * @param errorState Exchange result
+     * @return Result set
+     */
+    private ResultSet evalReadResponse(int errorState) {
         ResultSet rs = new ResultSet();
+        if (errorState != Nodave.RESULT_OK) {
+            rs.setErrorState(errorState);
+            return rs;
+        }
+        PDU p2 = new PDU(msgIn, PDUstartIn);
+        errorState = p2.setupReceivedPDU();
+        if (errorState != Nodave.RESULT_OK) {
+            rs.setErrorState(errorState);
+            return rs;
+        }
         if (p2.mem[p2.param + 0] == PDU.FUNC_READ) {
-            int numResults = p2.mem[p2.param + 1];
-            // System.out.println("Results " + numResults);
+            int numResults = Nodave.USByte(p2.mem, p2.param + 1);
             rs.results = new Result[numResults];
             int pos = p2.data;
             for (int i = 0; i < numResults; i++) {
@@ -429,38 +663,30 @@ public abstract class S7Connection {
                     int type = Nodave.USByte(p2.mem, pos + 1);
                     int len = Nodave.USBEWord(p2.mem, pos + 2);
                     r.error = 0;
-                    // System.out.println("Raw length " + len);
                     if (type == 4) {
                         len /= 8;
                     } else if (type == 3) {
                         ; // length is ok
                     }
 
-                    // System.out.println("Byte length " + len);
-                    // r.data = new byte[len];
-
-                    // System.arraycopy(p2.mem, pos + 4, r.data, 0, len);
-                    // Nodave.dump("Result " + i + ":", r.data, 0, len);
                     r.bufferStart = pos + 4;
+                    r.length = len;
                     pos += len;
                     if ((len % 2) == 1) {
                         pos++;
                     }
-                } else {
+                } else if ((Nodave.Debug & Nodave.DEBUG_CONN) != 0) {
                     System.out.println("Error " + r.error);
                 }
                 pos += 4;
                 rs.results[i] = r;
             }
-            numResults = p2.mem[p2.param + 1];
             rs.setNumResults(numResults);
             dataPointer = p2.udata;
             answLen = p2.udlen;
-            // }
         } else {
             errorState |= 2048;
         }
-        semaphore.leave();
         rs.setErrorState(errorState);
         return rs;
     }
@@ -481,7 +707,8 @@ public abstract class S7Connection {
     public int negPDUlengthRequest() throws IOException {
         int res;
         PDU p = new PDU(msgOut, PDUstartOut);
-        byte pa[] = { (byte) 0xF0, 0, 0x00, 0x01, 0x00, 0x01, 0x03, (byte) 0xC0, };
+        byte pa[] = { (byte) 0xF0, 0, 0x00, (byte) MAX_PARALLEL_JOBS, 0x00, (byte) MAX_PARALLEL_JOBS, 0x03,
+                (byte) 0xC0, };
         p.initHeader(1);
         p.addParam(pa);
         if ((Nodave.Debug & Nodave.DEBUG_PDU) != 0) {
@@ -497,8 +724,11 @@ public abstract class S7Connection {
             return res;
         }
         maxPDUlength = Nodave.USBEWord(msgIn, p2.param + 6);
+        maxParallelJobs = Math.max(1,
+                Math.min(Nodave.USBEWord(msgIn, p2.param + 2), Nodave.USBEWord(msgIn, p2.param + 4)));
         if ((Nodave.Debug & Nodave.DEBUG_CONNECT) != 0) {
             System.out.println("*** Partner offered PDU length: " + maxPDUlength);
+            System.out.println("*** Partner offered parallel jobs: " + maxParallelJobs);
         }
         return res;
     }
@@ -121,11 +121,21 @@ public class TCPConnection extends S7Connection {
     }
 
     protected int sendISOPacket(int size) throws IOException {
-        if (iface.in.available() > 0) {
-            iface.in.skip(iface.in.available());
-            if ((Nodave.Debug & Nodave.DEBUG_EXCHANGE) != 0) {
-                System.out.println(" input buffer cleared");
-            }
+        return sendISOPacket(size, true);
+    }
+
+    /**
+     * Send ISOonTCP packet
+     *
+     * @param size Packet size without TPKT header
+     * @param clearInput Discard pending incoming data. Must be false when responses of previous requests are
+     *            expected.
+     * @return
+     * @throws IOException
+     */
+    protected int sendISOPacket(int size, boolean clearInput) throws IOException {
+        if (clearInput) {
+            iface.clearInput();
         }
         size += 4;
         msgOut[0] = (byte) 0x03;
@@ -149,16 +159,29 @@ public class TCPConnection extends S7Connection {
 
     @Override
     public int exchange(PDU p1) throws IOException {
-        int res;
-        PDU p2;
         if ((Nodave.Debug & Nodave.DEBUG_EXCHANGE) != 0) {
             System.out.println(" enter TCP.Exchange");
         }
+        sendPDU(p1, true);
+        return receivePDU();
+    }
+
+    @Override
+    protected boolean canPipeline() {
+        return true;
+    }
+
+    @Override
+    protected int sendPDU(PDU p1, boolean clearInput) throws IOException {
         msgOut[4] = (byte) 0x02;
         msgOut[5] = (byte) 0xf0;
         msgOut[6] = (byte) 0x80;
-        sendISOPacket(3 + p1.hlen + p1.plen + p1.dlen);
-        res = readISOPacket();
+        return sendISOPacket(3 + p1.hlen + p1.plen + p1.dlen, clearInput);
+    }
+
+    @Override
+    protected int receivePDU() throws IOException {
+        int res = readISOPacket();
         if (res == 0) {
             return Nodave.RESULT_NO_DATA_RETURNED;
         }
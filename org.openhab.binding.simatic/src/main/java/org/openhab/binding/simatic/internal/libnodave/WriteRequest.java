@@ -0,0 +1,77 @@
+/*
+ Part of Libnodave, a free communication libray for Siemens S7 300/400 via
+ the MPI adapter 6ES7 972-0CA22-0XAC
+ or  MPI adapter 6ES7 972-0CA33-0XAC
+ or  MPI adapter 6ES7 972-0CA11-0XAC.
+
+ (C) Thomas Hergenhahn (thomas.hergenhahn@web.de) 2002.
+
+ Libnodave is free software; you can redistribute it and/or modify
+ it under the terms of the GNU Library General Public License as published by
+ the Free Software Foundation; either version 2, or (at your option)
+ any later version.
+
+ Libnodave is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU Library General Public License
+ along with this; see the file COPYING.  If not, write to
+ the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+*/
+package org.openhab.binding.simatic.internal.libnodave;
+
+/**
+ * Set of variables written by one request PDU
+ *
+ */
+public class WriteRequest {
+    public final int[] area;
+    public final int[] DBnum;
+    public final int[] start;
+    public final int[] len;
+    public final byte[][] buffers;
+    /**
+     * true for single bit variable, start is then in bits
+     */
+    public final boolean[] bit;
+    /**
+     * result of each variable from last write
+     */
+    public final int[] results;
+
+    public WriteRequest(int count) {
+        area = new int[count];
+        DBnum = new int[count];
+        start = new int[count];
+        len = new int[count];
+        buffers = new byte[count][];
+        bit = new boolean[count];
+        results = new int[count];
+    }
+
+    /**
+     * Set byte variable at specified position in request
+     */
+    public void setVar(int index, int area, int DBnum, int start, int len, byte[] buffer) {
+        this.area[index] = area;
+        this.DBnum[index] = DBnum;
+        this.start[index] = start;
+        this.len[index] = len;
+        this.buffers[index] = buffer;
+        this.bit[index] = false;
+    }
+
+    /**
+     * Set bit variable at specified position in request. Start address is in bits.
+     */
+    public void setBitVar(int index, int area, int DBnum, int start, int len, byte[] buffer) {
+        setVar(index, area, DBnum, start, len, buffer);
+        this.bit[index] = true;
+    }
+
+    public int size() {
+        return area.length;
+    }
+}
@@ -12,8 +12,6 @@
  */
 package org.openhab.binding.simatic.internal.simatic;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,6 +51,14 @@ public class SimaticChannel {
     public String commandAddress;
     /** Number value unit */
     public String unit;
+    /** State read interval [ms]. If not set bridge poll rate is used */
+    public Integer pollInterval;
+    /** Minimal time between two state updates [ms]. Newest state is sent after interval elapses */
+    public Integer minUpdateInterval;
+    /** Minimal change against last sent value. Used in OnChange mode */
+    public Double deadband;
+    /** Minimal change against last sent value in percent of that value. Used in OnChange mode */
+    public Double deadbandPercent;
     /** Stored state value */
     private State value;
     /** Channel configuration error */
@@ -63,12 +69,38 @@ public class SimaticChannel {
     private SimaticPLCAddress commandAddressPlc;
     /** Channel thing */
     private SimaticGenericHandler thing;
+    /** Earliest time of next state dispatch [ms]. Guarded by state dispatcher lock */
+    long nextDispatch = 0;
+    /** Position in channel table of current read plan, -1 if channel is not read */
+    int ordinal = -1;
     /** Last value update */
     private long valueUpdateTime = 0;
+    /** Time of state restored from snapshot [ms], zero if state was read from device */
+    private volatile long restoredTime = 0;
     private boolean missingCommandReported = false;
     private Unit<?> unitInstance = null;
     private boolean unitExists = false;
-    private boolean chContact, chColor, chDimmer, chNumber, chRollershutter, chString, chSwitch;
+    /** Channel type code **/
+    private byte type = TYPE_NONE;
+    /** State decoder compiled for channel type and state address */
+    private SimaticStateDecoder decoder = null;
+
+    static final byte TYPE_NONE = 0;
+    static final byte TYPE_CONTACT = 1;
+    static final byte TYPE_COLOR = 2;
+    static final byte TYPE_DIMMER = 3;
+    static final byte TYPE_NUMBER = 4;
+    static final byte TYPE_ROLLERSHUTTER = 5;
+    static final byte TYPE_STRING = 6;
+    static final byte TYPE_SWITCH = 7;
+
+    /** Cached percent states */
+    private static final PercentType[] PERCENT_STATES = new PercentType[101];
+    static {
+        for (int i = 0; i < PERCENT_STATES.length; i++) {
+            PERCENT_STATES[i] = new PercentType(i);
+        }
+    }
 
     final private static Pattern numberAddressPattern = Pattern.compile(
             "^(([IQAEM][BW])(\\d+))$|^(([IQAEM]D)(\\d+)(F?))$|^(DB(\\d+)\\.DB([BW])(\\d+))$|^(DB(\\d+)\\.DB(D)(\\d+)(F?))$|^(([IQAEM])(\\d+)\\.([0-7]))$|^(DB(\\d+)\\.DBX(\\d+)\\.([0-7]))$");
@@ -88,7 +120,10 @@ public class SimaticChannel {
 
     @Override
     public String toString() {
-        return String.format("ChID=%s,StateAddress=%s,CmdAddress=%s", channelId.getId(), stateAddress, commandAddress);
+        // configuration strings are released after initialization, parsed addresses are shown then
+        return String.format("ChID=%s,StateAddress=%s,CmdAddress=%s", channelId.getId(),
+                (stateAddressPlc != null) ? stateAddressPlc : stateAddress,
+                (commandAddressPlc != null) ? commandAddressPlc : commandAddress);
     }
 
     /**
@@ -136,15 +171,103 @@ public class SimaticChannel {
             }
         }
 
+        decoder = (stateAddressPlc != null) ? compileDecoder(stateAddressPlc) : null;
+
+        // parsed configuration is kept only
+        stateAddress = null;
+        commandAddress = null;
+        unit = null;
+
         return true;
     }
 
+    /**
+     * Compile state decoder for channel type and address
+     *
+     * @param address State address
+     * @return Decoder or null if channel type is not supported
+     */
+    private @Nullable SimaticStateDecoder compileDecoder(SimaticPLCAddress address) {
+        final int length = address.getDataLength();
+        final int mask = 1 << address.getBitOffset();
+        final boolean isBit = address.getSimaticDataType() == SimaticPLCDataTypes.BIT;
+
+        if (isString()) {
+            return (buffer, position) -> {
+                // check for '\0' char and resolve string length
+                int i;
+                for (i = 0; i < length; i++) {
+                    if (buffer[position + i] == 0) {
+                        break;
+                    }
+                }
+                return new StringType(new String(buffer, position, i, thing.getCharset()));
+            };
+        } else if (isNumber()) {
+            final Unit<?> u = unitInstance;
+            if (address.isFloat()) {
+                if (hasUnit()) {
+                    return (buffer, position) -> new QuantityType<>(
+                            Float.intBitsToFloat(SimaticStateDecoder.getDWord(buffer, position)), u);
+                }
+                return (buffer, position) -> new DecimalType(
+                        Float.intBitsToFloat(SimaticStateDecoder.getDWord(buffer, position)));
+            }
+            if (isBit) {
+                final State zero = hasUnit() ? new QuantityType<>(0, u) : new DecimalType(0);
+                final State one = hasUnit() ? new QuantityType<>(1, u) : new DecimalType(1);
+                return (buffer, position) -> (buffer[position] & mask) != 0 ? one : zero;
+            }
+            final SimaticStateDecoder.IntReader reader;
+            switch (address.getSimaticDataType()) {
+                case BYTE:
+                    reader = SimaticStateDecoder::getByte;
+                    break;
+                case WORD:
+                    reader = SimaticStateDecoder::getWord;
+                    break;
+                case DWORD:
+                    reader = SimaticStateDecoder::getDWord;
+                    break;
+                default:
+                    reader = (buffer, position) -> 0;
+                    break;
+            }
+            if (hasUnit()) {
+                return (buffer, position) -> new QuantityType<>(reader.read(buffer, position), u);
+            }
+            return (buffer, position) -> new DecimalType(reader.read(buffer, position));
+        } else if (isDimmer() || isRollershutter()) {
+            return (buffer, position) -> {
+                final int value = buffer[position];
+                return (value >= 0 && value <= 100) ? PERCENT_STATES[value] : new PercentType(value);
+            };
+        } else if (isContact()) {
+            if (isBit) {
+                return (buffer, position) -> (buffer[position] & mask) != 0 ? OpenClosedType.OPEN
+                        : OpenClosedType.CLOSED;
+            }
+            return (buffer, position) -> buffer[position] != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+        } else if (isSwitch()) {
+            if (isBit) {
+                return (buffer, position) -> (buffer[position] & mask) != 0 ? OnOffType.ON : OnOffType.OFF;
+            }
+            return (buffer, position) -> buffer[position] != 0 ? OnOffType.ON : OnOffType.OFF;
+        } else if (isColor()) {
+            return (buffer, position) -> HSBType.fromRGB(buffer[position] & 0xFF, buffer[position + 1] & 0xFF,
+                    buffer[position + 2] & 0xFF);
+        }
+
+        return null;
+    }
+
     /**
      * Clear instance
      */
     public void clear() {
         thing = null;
         value = null;
+        restoredTime = 0;
     }
 
     /**
@@ -346,6 +469,52 @@ public class SimaticChannel {
         return commandAddressPlc;
     }
 
+    /**
+     * Get state read interval
+     *
+     * @return Interval [ms]. Zero if bridge poll rate should be used.
+     */
+    public int getPollInterval() {
+        return (pollInterval == null || pollInterval < 0) ? 0 : pollInterval;
+    }
+
+    /**
+     * Get minimal time between two state updates
+     *
+     * @return Interval [ms]. Zero if every state should be sent at once.
+     */
+    public int getMinUpdateInterval() {
+        return (minUpdateInterval == null || minUpdateInterval < 0) ? 0 : minUpdateInterval;
+    }
+
+    /**
+     * Get minimal change against last sent value
+     *
+     * @return Deadband. Zero if every change should be sent.
+     */
+    public double getDeadband() {
+        return (deadband == null || deadband < 0) ? 0 : deadband;
+    }
+
+    /**
+     * Get minimal change against last sent value in percent of that value
+     *
+     * @return Deadband [%]. Zero if every change should be sent.
+     */
+    public double getDeadbandPercent() {
+        return (deadbandPercent == null || deadbandPercent < 0) ? 0 : deadbandPercent;
+    }
+
+    /**
+     * Check if channel state is number read from data so deadband can be applied
+     *
+     * @return
+     */
+    public boolean isNumeric() {
+        return stateAddressPlc != null && stateAddressPlc.getSimaticDataType() != SimaticPLCDataTypes.BIT
+                && (isNumber() || isDimmer() || isRollershutter());
+    }
+
     /**
      * Get number value unit
      *
@@ -371,86 +540,42 @@ public class SimaticChannel {
      * @param position Data start position in buffer
      */
     public void setState(byte[] buffer, int start) {
-        // logger.debug("item={}", toString());
-        // logger.debug("buffer={}", buffer.length);
-        // logger.debug("position={}", position);
-        // logger.debug("item len={}", getStateAddress().getDataLength());
-
-        int position = getStateAddress().getByteOffset() - start;
+        final SimaticStateDecoder d = decoder;
+        if (d == null) {
+            setState(null);
+            logger.warn("{} - Incoming data channel {} - Unsupported channel type {}.", toString(), channelId,
+                    channelType.getId());
+            return;
+        }
 
         try {
-            ByteBuffer bb = ByteBuffer.wrap(buffer, position, getStateAddress().getDataLength());
-            bb.order(ByteOrder.BIG_ENDIAN);
+            setState(d.decode(buffer, stateAddressPlc.getByteOffset() - start));
+        } catch (Exception ex) {
+            logger.error("{} - Incoming data post error. Item:{}", toString(), channelId, ex);
+        }
+    }
 
-            if (isString()) {
-                // check for '\0' char and resolve string length
-                int i;
-                for (i = 0; i < getStateAddress().getDataLength(); i++) {
-                    if (buffer[position + i] == 0) {
-                        break;
-                    }
-                }
-                String str = new String(buffer, position, i, thing.getCharset());
-                setState(new StringType(str));
-            } else if (isNumber()) {
-                if (getStateAddress().isFloat()) {
-                    setState(hasUnit() ? new QuantityType<>(bb.getFloat(), getUnit()) : new DecimalType(bb.getFloat()));
-                } else {
-                    final int intValue;
-                    if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.BIT) {
-                        intValue = (bb.get() & (int) Math.pow(2, getStateAddress().getBitOffset())) != 0 ? 1 : 0;
-                    } else if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.BYTE) {
-                        intValue = bb.get();
-                    } else if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.WORD) {
-                        intValue = bb.getShort();
-                    } else if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.DWORD) {
-                        intValue = bb.getInt();
-                    } else {
-                        intValue = 0;
-                    }
+    /**
+     * Decode state from incoming data
+     *
+     * @param buffer Incoming data
+     * @param start Data start position in buffer
+     * @return State or null if data cannot be decoded
+     */
+    public @Nullable State decodeState(byte[] buffer, int start) {
+        final SimaticStateDecoder d = decoder;
+        if (d == null) {
+            logger.warn("{} - Incoming data channel {} - Unsupported channel type {}.", toString(), channelId,
+                    channelType.getId());
+            return null;
+        }
 
-                    setState(hasUnit() ? new QuantityType<>(intValue, getUnit()) : new DecimalType(intValue));
-                }
-            } else if (isDimmer()) {
-                setState(new PercentType(bb.get()));
-            } else if (isContact()) {
-                if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.BIT) {
-                    setState((bb.get() & (int) Math.pow(2, getStateAddress().getBitOffset())) != 0 ? OpenClosedType.OPEN
-                            : OpenClosedType.CLOSED);
-                } else {
-                    setState((bb.get() != 0) ? OpenClosedType.OPEN : OpenClosedType.CLOSED);
-                }
-            } else if (isSwitch()) {
-                if (getStateAddress().getSimaticDataType() == SimaticPLCDataTypes.BIT) {
-                    setState((bb.get() & (int) Math.pow(2, getStateAddress().getBitOffset())) != 0 ? OnOffType.ON
-                            : OnOffType.OFF);
-                } else {
-                    setState(bb.get() != 0 ? OnOffType.ON : OnOffType.OFF);
-                }
-            } else if (isRollershutter()) {
-                setState(new PercentType(bb.get()));
-            } else if (isColor()) {
-                byte b0 = bb.get();
-                byte b1 = bb.get();
-                byte b2 = bb.get();
-                // byte b3 = bb.get();
-
-                setState(HSBType.fromRGB(b0 & 0xFF, b1 & 0xFF, b2 & 0xFF));
-            } else {
-                setState(null);
-                logger.warn("{} - Incoming data channel {} - Unsupported channel type {}.", toString(), channelId,
-                        channelType.getId());
-                return;
-            }
+        try {
+            return d.decode(buffer, stateAddressPlc.getByteOffset() - start);
         } catch (Exception ex) {
             logger.error("{} - Incoming data post error. Item:{}", toString(), channelId, ex);
+            return null;
         }
-
-        /*
-         * if (logger.isTraceEnabled()) {
-         * logger.trace("{} - Incoming data - item:{}/state:{}", toString(), channelId, getState());
-         * }
-         */
     }
 
     /**
@@ -463,6 +588,11 @@ public class SimaticChannel {
         if (thing == null) {
             return;
         }
+        // state is read from device
+        if (restoredTime != 0) {
+            restoredTime = 0;
+            thing.setStale(channelId, 0);
+        }
         // clear thing errors
         clearError();
         // in OnChange mode, only changed values are forwarded
@@ -477,6 +607,33 @@ public class SimaticChannel {
         setValueUpdateTime(System.currentTimeMillis());
     }
 
+    /**
+     * Set state restored from snapshot. Channel is marked stale until its state is read from device.
+     *
+     * @param state
+     * @param time Time of snapshot [ms]
+     * @return False if channel has state already
+     */
+    public boolean restoreState(State state, long time) {
+        if (thing == null || value != null) {
+            return false;
+        }
+        value = state;
+        restoredTime = time;
+        thing.setStale(channelId, time);
+        thing.updateState(channelId, state);
+        return true;
+    }
+
+    /**
+     * Get time of state restored from snapshot
+     *
+     * @return Time [ms], zero if state was read from device
+     */
+    public long getRestoredTime() {
+        return restoredTime;
+    }
+
     /**
      * Get last channel state
      *
@@ -561,32 +718,41 @@ public class SimaticChannel {
     public void setChannelType(ChannelTypeUID channelTypeUID) {
         this.channelType = channelTypeUID;
 
-        chContact = chColor = chDimmer = chNumber = chRollershutter = chString = chSwitch = false;
+        type = TYPE_NONE;
         switch (channelType.getId()) {
             case SimaticBindingConstants.CHANNEL_CONTACT:
-                chContact = true;
+                type = TYPE_CONTACT;
                 break;
             case SimaticBindingConstants.CHANNEL_COLOR:
-                chColor = true;
+                type = TYPE_COLOR;
                 break;
             case SimaticBindingConstants.CHANNEL_DIMMER:
-                chDimmer = true;
+                type = TYPE_DIMMER;
                 break;
             case SimaticBindingConstants.CHANNEL_NUMBER:
-                chNumber = true;
+                type = TYPE_NUMBER;
                 break;
             case SimaticBindingConstants.CHANNEL_ROLLERSHUTTER:
-                chRollershutter = true;
+                type = TYPE_ROLLERSHUTTER;
                 break;
             case SimaticBindingConstants.CHANNEL_STRING:
-                chString = true;
+                type = TYPE_STRING;
                 break;
             case SimaticBindingConstants.CHANNEL_SWITCH:
-                chSwitch = true;
+                type = TYPE_SWITCH;
                 break;
         }
     }
 
+    /**
+     * Return position in channel table of current read plan
+     *
+     * @return Ordinal, -1 if channel is not read
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     /**
      * Get channel ID
      */
@@ -607,7 +773,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isContact() {
-        return chContact;
+        return type == TYPE_CONTACT;
     }
 
     /**
@@ -616,7 +782,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isColor() {
-        return chColor;
+        return type == TYPE_COLOR;
     }
 
     /**
@@ -625,7 +791,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isDimmer() {
-        return chDimmer;
+        return type == TYPE_DIMMER;
     }
 
     /**
@@ -634,7 +800,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isNumber() {
-        return chNumber;
+        return type == TYPE_NUMBER;
     }
 
     /**
@@ -643,7 +809,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isRollershutter() {
-        return chRollershutter;
+        return type == TYPE_ROLLERSHUTTER;
     }
 
     /**
@@ -652,7 +818,7 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isString() {
-        return chString;
+        return type == TYPE_STRING;
     }
 
     /**
@@ -661,6 +827,6 @@ public class SimaticChannel {
      * @return True if channel has that type
      */
     public boolean isSwitch() {
-        return chSwitch;
+        return type == TYPE_SWITCH;
     }
 }
\ No newline at end of file
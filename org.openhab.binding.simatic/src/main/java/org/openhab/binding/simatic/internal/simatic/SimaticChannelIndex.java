@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ *
+ * Index of read channels. Channels are kept by read interval and segment (area and DB) ordered by byte offset, so
+ * channels are added and removed without sorting all of them. Byte ranges changed since last read plan are recorded
+ * for each segment. Read planner plans again only areas around them.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticChannelIndex {
+    /** channels by read interval, segment and byte offset. Channels of same offset are sorted by address **/
+    private final TreeMap<Integer, TreeMap<String, TreeMap<Integer, List<SimaticChannel>>>> tiers = new TreeMap<>();
+    /** byte ranges [start, end) changed since last plan by read interval and segment **/
+    private final HashMap<Integer, HashMap<String, ArrayList<int[]>>> changes = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Return segment key of address
+     *
+     * @param address
+     * @return
+     */
+    static String getSegmentKey(SimaticPLCAddress address) {
+        return (address.getArea() == SimaticPLCAreaTypes.DB) ? "DB" + address.getDBNumber()
+                : address.getArea().toString();
+    }
+
+    /**
+     * Add channel
+     *
+     * @param interval Read interval [ms]
+     * @param channel Channel with state address
+     */
+    public void add(int interval, SimaticChannel channel) {
+        final SimaticPLCAddress address = channel.getStateAddress();
+        final String segment = getSegmentKey(address);
+        final List<SimaticChannel> list = tiers
+                .computeIfAbsent(interval, k -> new TreeMap<>())
+                .computeIfAbsent(segment, k -> new TreeMap<>())
+                .computeIfAbsent(address.getByteOffset(), k -> new ArrayList<>(1));
+        int i = list.size();
+        while (i > 0 && list.get(i - 1).getStateAddress().compareTo(address) > 0) {
+            i--;
+        }
+        list.add(i, channel);
+        size++;
+        addChange(interval, segment, address);
+    }
+
+    /**
+     * Remove channel
+     *
+     * @param interval Read interval [ms] channel was added with
+     * @param channel
+     * @return False if channel is not indexed
+     */
+    public boolean remove(int interval, SimaticChannel channel) {
+        final SimaticPLCAddress address = channel.getStateAddress();
+        final String segment = getSegmentKey(address);
+        final var tier = tiers.get(interval);
+        final var offsets = (tier != null) ? tier.get(segment) : null;
+        final var list = (offsets != null) ? offsets.get(address.getByteOffset()) : null;
+        if (list == null || !list.remove(channel)) {
+            return false;
+        }
+        if (list.isEmpty()) {
+            offsets.remove(address.getByteOffset());
+            if (offsets.isEmpty()) {
+                tier.remove(segment);
+                if (tier.isEmpty()) {
+                    tiers.remove(interval);
+                }
+            }
+        }
+        size--;
+        addChange(interval, segment, address);
+        return true;
+    }
+
+    private void addChange(int interval, String segment, SimaticPLCAddress address) {
+        changes.computeIfAbsent(interval, k -> new HashMap<>()).computeIfAbsent(segment, k -> new ArrayList<>())
+                .add(new int[] { address.getByteOffset(), address.getByteOffset() + address.getDataLength() });
+    }
+
+    /**
+     * Return read intervals of channels
+     *
+     * @return
+     */
+    public Set<Integer> getIntervals() {
+        return Collections.unmodifiableSet(tiers.keySet());
+    }
+
+    /**
+     * Return segments of read interval
+     *
+     * @param interval Read interval [ms]
+     * @return
+     */
+    public Set<String> getSegments(int interval) {
+        final var tier = tiers.get(interval);
+        return (tier != null) ? Collections.unmodifiableSet(tier.keySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Return channels of read interval sorted by segment and address
+     *
+     * @param interval Read interval [ms]
+     * @return
+     */
+    public List<SimaticChannel> getChannels(int interval) {
+        final List<SimaticChannel> out = new ArrayList<SimaticChannel>();
+        for (String segment : getSegments(interval)) {
+            out.addAll(getChannels(interval, segment, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        }
+        return out;
+    }
+
+    /**
+     * Return channels of segment which data start in byte range
+     *
+     * @param interval Read interval [ms]
+     * @param segment Segment key
+     * @param from First byte offset
+     * @param to Byte offset after range
+     * @return Channels sorted by address
+     */
+    public List<SimaticChannel> getChannels(int interval, String segment, int from, int to) {
+        final List<SimaticChannel> out = new ArrayList<SimaticChannel>();
+        final var tier = tiers.get(interval);
+        final var offsets = (tier != null) ? tier.get(segment) : null;
+        if (offsets != null && from < to) {
+            for (Map.Entry<Integer, List<SimaticChannel>> entry : offsets.subMap(from, to).entrySet()) {
+                out.addAll(entry.getValue());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Return byte ranges of segment changed since changes were cleared
+     *
+     * @param interval Read interval [ms]
+     * @param segment Segment key
+     * @return Ranges [start, end), null if segment is not changed
+     */
+    public @Nullable List<int[]> getChanges(int interval, String segment) {
+        final var tier = changes.get(interval);
+        return (tier != null) ? tier.get(segment) : null;
+    }
+
+    /**
+     * Forget changes. Called when read plan of all channels is built.
+     */
+    public void clearChanges() {
+        changes.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.types.State;
+
+/**
+ *
+ * Compact table of all read channels of device. Table is built with read plan, channels get ordinals in plan order
+ * (tier, request, area), so channels of one area form continuous range sorted by address. Data offsets, lengths and
+ * bit numbers are kept in primitive arrays indexed by ordinal. Changed bytes of area are found by one comparison with
+ * data of previous update, only channels holding them are decoded. Changes of numeric channels within deadband of last
+ * sent value are not sent. Table is not changed after it is built except of last sent values, which are used by read
+ * cycle only.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticChannelTable {
+    public static final SimaticChannelTable EMPTY = new SimaticChannelTable(List.of(), null);
+
+    final SimaticChannel[] channels;
+    /** channel data byte offset **/
+    final int[] offsets;
+    /** channel data length [bytes] **/
+    final int[] lengths;
+    /** bit number of bit channels, -1 for others **/
+    final byte[] bits;
+    /** absolute deadband, null if no channel has deadband **/
+    final double[] deadbands;
+    /** relative deadband [%] **/
+    final double[] deadbandPercents;
+    /** channel data is float **/
+    final boolean[] floats;
+    /** last sent value of channels with deadband **/
+    final double[] sent;
+
+    /**
+     * Build table of read plan. Requests of plan are bound to table. Last sent values are taken over from previous
+     * table.
+     *
+     * @param tiers Read tiers
+     * @param previous Table of previous plan
+     */
+    public SimaticChannelTable(List<SimaticReadTier> tiers, @Nullable SimaticChannelTable previous) {
+        int count = 0;
+        boolean hasDeadband = false;
+        for (SimaticReadTier tier : tiers) {
+            for (SimaticReadDataArea area : tier.areas) {
+                count += area.items.size();
+                for (SimaticChannel item : area.items) {
+                    hasDeadband |= item.isNumeric() && (item.getDeadband() > 0 || item.getDeadbandPercent() > 0);
+                }
+            }
+        }
+
+        channels = new SimaticChannel[count];
+        offsets = new int[count];
+        lengths = new int[count];
+        bits = new byte[count];
+        if (hasDeadband) {
+            deadbands = new double[count];
+            deadbandPercents = new double[count];
+            floats = new boolean[count];
+            sent = new double[count];
+        } else {
+            deadbands = deadbandPercents = sent = null;
+            floats = null;
+        }
+
+        int n = 0;
+        for (SimaticReadTier tier : tiers) {
+            for (SimaticReadRequest request : tier.requests) {
+                final int[] first = new int[request.size()];
+                for (int a = 0; a < request.size(); a++) {
+                    first[a] = n;
+                    for (SimaticChannel item : request.areas.get(a).items) {
+                        final SimaticPLCAddress address = item.getStateAddress();
+                        channels[n] = item;
+                        offsets[n] = address.getByteOffset();
+                        lengths[n] = address.getDataLength();
+                        bits[n] = (byte) ((address.getSimaticDataType() == SimaticPLCDataTypes.BIT)
+                                ? address.getBitOffset()
+                                : -1);
+                        if (hasDeadband && item.isNumeric()) {
+                            deadbands[n] = item.getDeadband();
+                            deadbandPercents[n] = item.getDeadbandPercent();
+                            floats[n] = address.isFloat();
+                            if (previous != null && previous.sent != null && item.ordinal >= 0
+                                    && item.ordinal < previous.channels.length
+                                    && previous.channels[item.ordinal] == item) {
+                                sent[n] = previous.sent[item.ordinal];
+                            }
+                        }
+                        item.ordinal = n;
+                        n++;
+                    }
+                }
+                request.bind(this, first);
+            }
+        }
+    }
+
+    /**
+     * Return channel raw value. Data are taken as big endian number.
+     */
+    static long getRaw(byte[] buffer, int position, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (buffer[position + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Return number from raw value as decoded by channel
+     */
+    static double getNumber(long raw, int length, boolean isFloat) {
+        switch (length) {
+            case 1:
+                return (byte) raw;
+            case 2:
+                return (short) raw;
+            default:
+                return isFloat ? Float.intBitsToFloat((int) raw) : (int) raw;
+        }
+    }
+
+    /**
+     * Check if change of channel value is within its deadband. With both deadbands set, change must be within both of
+     * them. Deadband which is not set is not checked.
+     */
+    boolean isWithinDeadband(int i, double number) {
+        final double change = Math.abs(number - sent[i]);
+        return (deadbands[i] <= 0 || change < deadbands[i])
+                && (deadbandPercents[i] <= 0 || change < Math.abs(sent[i]) * deadbandPercents[i] / 100);
+    }
+
+    /**
+     * Send area data into channels. With change detection area data are compared with data of previous update and
+     * only channels with changed bytes are updated.
+     *
+     * @param area Read area
+     * @param first Ordinal of first area channel
+     * @param detectChanges Update only channels with changed value
+     * @param dispatcher Dispatcher of states, null to update channels directly
+     * @return Count of updated channels
+     */
+    @SuppressWarnings("null")
+    public int update(SimaticReadDataArea area, int first, boolean detectChanges,
+            @Nullable SimaticStateDispatcher dispatcher) {
+        final byte[] buffer = area.getDataBuffer();
+        final int start = area.getStartAddress();
+        final int length = area.getAddressSpaceLength();
+        final int end = first + area.items.size();
+        final boolean compare = detectChanges && area.primed;
+        byte[] image = area.image;
+        if (image == null || image.length < length) {
+            image = area.image = new byte[length];
+        }
+        boolean complete = true;
+        int updated = 0;
+        // position of first changed byte not before current channel, length if there is none
+        int changed = -1;
+
+        for (int i = first; i < end; i++) {
+            final int offset = offsets[i] - start;
+            if (compare) {
+                if (changed < offset) {
+                    // channels are sorted, bytes before channel are not needed any more
+                    final int m = Arrays.mismatch(buffer, offset, length, image, offset, length);
+                    changed = (m < 0) ? length : offset + m;
+                }
+                if (changed >= length) {
+                    break;
+                }
+                if (changed >= offset + lengths[i]) {
+                    continue;
+                }
+                if (bits[i] >= 0 && ((buffer[offset] ^ image[offset]) & (1 << bits[i])) == 0) {
+                    continue;
+                }
+            }
+            final boolean hasDeadband = deadbands != null && deadbands[i] + deadbandPercents[i] > 0;
+            final double number = hasDeadband ? getNumber(getRaw(buffer, offset, lengths[i]), lengths[i], floats[i])
+                    : 0;
+            if (compare && hasDeadband && isWithinDeadband(i, number)) {
+                // value is not sent, deadband is still measured from last sent value
+                continue;
+            }
+            if (dispatcher == null) {
+                channels[i].setState(buffer, start);
+            } else {
+                final State state = channels[i].decodeState(buffer, start);
+                // rejected state is not remembered, next update sends all channels of area
+                if (state == null || !dispatcher.offer(channels[i], state)) {
+                    complete = false;
+                    continue;
+                }
+            }
+            if (hasDeadband) {
+                sent[i] = number;
+            }
+            updated++;
+        }
+
+        System.arraycopy(buffer, 0, image, 0, length);
+        area.primed = detectChanges && complete;
+        return updated;
+    }
+
+    public int size() {
+        return channels.length;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * Bounded queue of pending commands. Only newest command for each PLC address is kept, it stays on position of first
+ * pending command for that address. Command is not moved before pending command writing any of its bytes, so writes
+ * of overlapping addresses stay in order.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticCommandQueue {
+    /** Maximum count of addresses with pending command **/
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final ArrayList<SimaticWriteDataArea> commands = new ArrayList<SimaticWriteDataArea>();
+    private final int capacity;
+
+    /** statistics of current metrics period **/
+    private int peakSize = 0;
+    private long coalesced = 0;
+    private long rejected = 0;
+
+    public SimaticCommandQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SimaticCommandQueue(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    private static boolean isSameAddress(SimaticWriteDataArea a, SimaticWriteDataArea b) {
+        return a.getAddressSpaceLength() == b.getAddressSpaceLength()
+                && a.getAddress().toString().equals(b.getAddress().toString());
+    }
+
+    /**
+     * Check if commands write any common bit
+     */
+    static boolean isOverlapping(SimaticWriteDataArea a, SimaticWriteDataArea b) {
+        if (a.getArea() != b.getArea()
+                || (a.getArea() == SimaticPLCAreaTypes.DB && a.getDBNumber() != b.getDBNumber())
+                || a.getStartAddress() >= b.getStartAddress() + b.getAddressSpaceLength()
+                || b.getStartAddress() >= a.getStartAddress() + a.getAddressSpaceLength()) {
+            return false;
+        }
+        // bits are written separately
+        return a.getAddress().getSimaticDataType() != SimaticPLCDataTypes.BIT
+                || b.getAddress().getSimaticDataType() != SimaticPLCDataTypes.BIT
+                || a.getAddress().getBitOffset() == b.getAddress().getBitOffset();
+    }
+
+    /**
+     * Add command. Pending command for same address is replaced unless some later pending command overlaps it.
+     *
+     * @param data
+     * @return False if queue is full and command was rejected
+     */
+    public synchronized boolean offer(SimaticWriteDataArea data) {
+        // search from newest, command cannot pass overlapping one
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            final SimaticWriteDataArea pending = commands.get(i);
+            if (isSameAddress(pending, data)) {
+                // position of pending command is kept
+                commands.set(i, data);
+                coalesced++;
+                return true;
+            }
+            if (isOverlapping(pending, data)) {
+                break;
+            }
+        }
+        if (commands.size() >= capacity) {
+            rejected++;
+            return false;
+        }
+        commands.add(data);
+        if (commands.size() > peakSize) {
+            peakSize = commands.size();
+        }
+        return true;
+    }
+
+    /**
+     * Take oldest commands which fit into one request
+     *
+     * @param pduSize Negotiated PDU size
+     * @return Request or null if queue is empty
+     */
+    public synchronized SimaticWriteRequest poll(int pduSize) {
+        if (commands.isEmpty()) {
+            return null;
+        }
+
+        final SimaticWriteRequest request = new SimaticWriteRequest(pduSize);
+        int taken = 0;
+        while (taken < commands.size() && request.canAdd(commands.get(taken))) {
+            request.add(commands.get(taken++));
+        }
+        commands.subList(0, taken).clear();
+        return request;
+    }
+
+    public synchronized boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public synchronized int size() {
+        return commands.size();
+    }
+
+    public synchronized void clear() {
+        commands.clear();
+    }
+
+    /**
+     * Return maximum queue length since last call
+     *
+     * @return
+     */
+    public synchronized int takePeakSize() {
+        final int result = peakSize;
+        peakSize = commands.size();
+        return result;
+    }
+
+    /**
+     * Return count of commands replaced by newer one since last call
+     *
+     * @return
+     */
+    public synchronized long takeCoalesced() {
+        final long result = coalesced;
+        coalesced = 0;
+        return result;
+    }
+
+    /**
+     * Return count of commands rejected for full queue since last call
+     *
+     * @return
+     */
+    public synchronized long takeRejected() {
+        final long result = rejected;
+        rejected = 0;
+        return result;
+    }
+}
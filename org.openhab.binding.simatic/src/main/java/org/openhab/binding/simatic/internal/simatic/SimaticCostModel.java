@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+/**
+ *
+ * Cost model of data exchange with PLC. Exchange time is estimated as per-request overhead plus per-byte cost of
+ * transferred request and response. Both are calibrated from measured exchange times.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticCostModel {
+    /** Default round trip time [ms] **/
+    public static final double DEFAULT_REQUEST_COST = 10.0;
+    /** Default transfer time of one byte [ms] **/
+    public static final double DEFAULT_BYTE_COST = 0.01;
+    /** Weight of older samples **/
+    static final double SAMPLE_DECAY = 0.98;
+
+    private double requestCost = DEFAULT_REQUEST_COST;
+    private double byteCost = DEFAULT_BYTE_COST;
+
+    /** weighted sums for least squares fit **/
+    private double n, sx, sy, sxx, sxy;
+    private int samples = 0;
+
+    /**
+     * Return round trip time [ms]
+     *
+     * @return
+     */
+    public synchronized double getRequestCost() {
+        return requestCost;
+    }
+
+    /**
+     * Return transfer time of one byte [ms]
+     *
+     * @return
+     */
+    public synchronized double getByteCost() {
+        return byteCost;
+    }
+
+    /**
+     * Return count of collected samples
+     *
+     * @return
+     */
+    public synchronized int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Return maximum count of variables in one request
+     *
+     * @param pduSize Negotiated PDU size
+     * @return
+     */
+    public static int getMaxItems(int pduSize) {
+        return Math.max(1, (getPduSize(pduSize) - SimaticReadRequest.REQUEST_HEADER_LENGTH)
+                / SimaticReadRequest.REQUEST_ITEM_LENGTH);
+    }
+
+    /**
+     * Return PDU size used for planning
+     *
+     * @param pduSize Negotiated PDU size
+     * @return
+     */
+    public static int getPduSize(int pduSize) {
+        return pduSize > SimaticIReadWriteDataArea.READ_OVERHEAD ? pduSize
+                : SimaticIReadWriteDataArea.MAX_DATA_LENGTH + SimaticIReadWriteDataArea.READ_OVERHEAD;
+    }
+
+    /**
+     * Add measured exchange
+     *
+     * @param bytes Transferred bytes (request and response)
+     * @param nanos Exchange time [ns]
+     */
+    public synchronized void addSample(int bytes, long nanos) {
+        final double x = bytes;
+        final double y = nanos / 1000000.0;
+
+        n = n * SAMPLE_DECAY + 1;
+        sx = sx * SAMPLE_DECAY + x;
+        sy = sy * SAMPLE_DECAY + y;
+        sxx = sxx * SAMPLE_DECAY + x * x;
+        sxy = sxy * SAMPLE_DECAY + x * y;
+        samples++;
+
+        final double det = n * sxx - sx * sx;
+        // byte cost can be resolved only from samples with different length
+        if (det > n * n) {
+            double slope = (n * sxy - sx * sy) / det;
+            if (slope > 0) {
+                byteCost = slope;
+            }
+        }
+        requestCost = Math.max((sy - byteCost * sx) / n, 0.0);
+    }
+
+    /**
+     * Estimate cost of area transferred as one variable. Request overhead is shared by all variables in one PDU.
+     *
+     * @param length Area length [bytes]
+     * @param pduSize Negotiated PDU size
+     * @return Estimated cost [ms]
+     */
+    public synchronized double estimateArea(int length, int pduSize) {
+        final int pdu = getPduSize(pduSize);
+        final int response = SimaticReadRequest.RESPONSE_ITEM_OVERHEAD + length + (length % 2);
+        final double share = Math.max((double) response / (pdu - SimaticReadRequest.RESPONSE_HEADER_LENGTH),
+                1.0 / getMaxItems(pduSize));
+
+        return requestCost * share + byteCost * (SimaticReadRequest.REQUEST_ITEM_LENGTH + response);
+    }
+
+    /**
+     * Estimate cost of requests
+     *
+     * @param requests Requests count
+     * @param bytes Transferred bytes (requests and responses)
+     * @return Estimated cost [ms]
+     */
+    public synchronized double estimate(int requests, int bytes) {
+        return requests * requestCost + bytes * byteCost;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("request=%.2fms,byte=%.2fus,samples=%d", requestCost, byteCost * 1000, samples);
+    }
+}
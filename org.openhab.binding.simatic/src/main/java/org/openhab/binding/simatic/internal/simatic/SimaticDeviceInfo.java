@@ -90,6 +90,24 @@ public class SimaticDeviceInfo {
         }
     }
 
+    /**
+     * Copy information of same device
+     *
+     * @param source
+     */
+    public void copyFrom(SimaticDeviceInfo source) {
+        moduleTypeName = source.moduleTypeName;
+        serialNumber = source.serialNumber;
+        plcName = source.plcName;
+        copyright = source.copyright;
+        moduleName = source.moduleName;
+        orderNr = source.orderNr;
+        hwOrderNr = source.hwOrderNr;
+        hwVersion = source.hwVersion;
+        fwVersion = source.fwVersion;
+        memorySize = source.memorySize;
+    }
+
     /**
      * Get connected device information
      *
@@ -10,23 +10,33 @@ package org.openhab.binding.simatic.internal.simatic;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.simatic.internal.handler.SimaticGenericHandler;
 import org.openhab.binding.simatic.internal.simatic.SimaticPortState.PortStates;
-import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,35 +48,99 @@ import org.slf4j.LoggerFactory;
  */
 public class SimaticGenericDevice implements SimaticIDevice {
     private static final Logger logger = LoggerFactory.getLogger(SimaticGenericDevice.class);
-    private static final String THING_HANDLER_THREADPOOL_NAME = "Simatic";
-    protected final ScheduledExecutorService scheduler = ThreadPoolManager
-            .getScheduledPool(THING_HANDLER_THREADPOOL_NAME);
-
-    private static final int RECONNECT_DELAY_MAX = 15;
-    private int rcTest = 0;
-    private int rcTestMax = 0;
+    private static final String THREAD_NAME = "simatic-device-";
+    private static final AtomicInteger deviceCounter = new AtomicInteger(0);
+    /** Phase step between devices. Golden ratio keeps any count of devices evenly spread over period **/
+    private static final double PHASE_STEP = 0.6180339887498949;
+    /** Data processing shared by all devices. Fair so busy device cannot starve others **/
+    private static final Semaphore processing = new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+    private final int deviceId = deviceCounter.incrementAndGet();
+    /**
+     * Executor owning all communication of this device. Socket transport blocks in receive, so each device keeps own
+     * thread and unresponsive device blocks only itself.
+     **/
+    protected final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREAD_NAME + deviceId, true));
+    /** Delivery of channel states, decoupled from communication. Served by pool shared by all devices **/
+    protected final SimaticStateDispatcher dispatcher = new SimaticStateDispatcher();
+    /** Start of read cycle as fraction of cycle period **/
+    private final double phase = (deviceId * PHASE_STEP) % 1.0;
+
+    /** First reconnect delay [ms] **/
+    private static final long RECONNECT_DELAY_MIN = 1000;
+    /** Maximum reconnect delay [ms] **/
+    private static final long RECONNECT_DELAY_MAX = 60000;
+    /** Maximum count of connection attempts in progress at once **/
+    private static final int CONNECTING_MAX = 4;
+    /** Connection attempts shared by all devices **/
+    private static final Semaphore connecting = new Semaphore(CONNECTING_MAX, true);
+    /** Count of failed reconnects in a row **/
+    private int rcAttempts = 0;
+    /** Time of next reconnect attempt [ms] **/
+    private long rcNext = 0;
 
     /** defines maximum resend count */
     public final int MAX_RESEND_COUNT = 2;
 
-    /** item config */
-    protected List<@NonNull SimaticChannel> stateItems;
+    /** read channels by interval and address. Guarded by plan lock **/
+    private final SimaticChannelIndex channelIndex = new SimaticChannelIndex();
+    /** version of read channels, changed with every added or removed channel. Zero if no channels were set **/
+    private volatile long itemsVersion = 0;
+    /** channels of all things are set. Until then stored areas without channels are read too **/
+    private volatile boolean itemsComplete = false;
 
     /** flag that device is connected */
     private boolean connected = false;
     /** queue for commands */
-    protected final Deque<SimaticWriteDataArea> commandQueue = new LinkedList<SimaticWriteDataArea>();
+    protected final SimaticCommandQueue commandQueue = new SimaticCommandQueue();
+    /** Time commands are collected before they are written in one request [ms] **/
+    protected int writeBatchWindow = 0;
+    /** flag that write of collected commands is scheduled **/
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
     /** State of socket */
     public SimaticPortState portState = new SimaticPortState();
-    /** Lock for process commands to prevent run it twice **/
+    /** Lock for process commands to prevent run it twice. Holder drains command queue **/
     protected final Lock lock = new ReentrantLock();
+    /** Lock for read cycle to prevent run it twice **/
     protected final Lock readLock = new ReentrantLock();
-    /** Read PLC areas **/
-    protected final SimaticReadQueue readAreasList = new SimaticReadQueue();
+    /** Lock for read plan preparation **/
+    private final Object planLock = new Object();
+    /** Current read plan. New plan is prepared aside and replaces it, read cycle works with plan taken at its start **/
+    protected volatile SimaticReadPlan readPlan = SimaticReadPlan.EMPTY;
+    /** Requests read in current cycle **/
+    private final ArrayList<SimaticReadRequest> cycleRequests = new ArrayList<SimaticReadRequest>();
+    /** Read schedule by tier interval. Kept over read plan replacement, used by read cycle only **/
+    private final HashMap<Integer, TierSchedule> tierSchedules = new HashMap<Integer, TierSchedule>();
+
+    /**
+     * Read schedule of one tier
+     */
+    private static class TierSchedule {
+        /** start of next read period [ms] **/
+        long nextRead = 0;
+        /** next request to read when requests are spread over more cycles **/
+        int cursor = 0;
+    }
     /** try reconnect flag when read/write function failure **/
     protected final AtomicBoolean tryReconnect = new AtomicBoolean(false);
     /** PDU size **/
     protected int pduSize = 0;
+    /** persisted read plan **/
+    private @Nullable SimaticPlanStore planStore = null;
+    /** snapshot of process image **/
+    private @Nullable SimaticImageSnapshot snapshot = null;
+    /** channel states should be restored from snapshot when channels are set **/
+    private boolean snapshotPending = false;
+    /** time of data restored from snapshot [ms], zero if nothing was restored **/
+    private long snapshotTime = 0;
+    /** current read plan was built from persisted plan **/
+    protected boolean planSeeded = false;
+    /** device information taken from cache, refresh after first read cycle **/
+    protected volatile boolean infoRefreshPending = false;
+    /** Count of requests processed by PLC in parallel **/
+    protected int parallelJobs = 1;
+    /** Exchange cost model used by read planner **/
+    protected final SimaticCostModel costModel = new SimaticCostModel();
     public final SimaticDeviceInfo info = new SimaticDeviceInfo();
     protected final Charset charset;
     protected final SimaticUpdateMode updateMode;
@@ -76,6 +150,8 @@ public class SimaticGenericDevice implements SimaticIDevice {
     long readed = 0;
     long readedBytes = 0;
     long metricsStart = 0;
+    /** Longest time from command creation to its write in current metrics period [ns] **/
+    private final AtomicLong commandLatency = new AtomicLong(0);
 
     public enum ProcessDataResult {
         OK,
@@ -90,9 +166,17 @@ public class SimaticGenericDevice implements SimaticIDevice {
     }
 
     private @Nullable ScheduledFuture<?> periodicJob = null;
+    /** Bridge poll rate [ms] **/
+    private final int pollRate;
+    /** Period of read cycle [ms]. Shortened by faster channels **/
+    private volatile int cycleRate;
 
     private final AtomicBoolean reconnecting = new AtomicBoolean(false);
     private long lastExecution = 0;
+    /** Planned start of next continuous cycle [ms] **/
+    private long nextExecution = 0;
+    /** Largest deviation of cycle start from its phase in current metrics period [ms] **/
+    private final AtomicLong cycleJitter = new AtomicLong(0);
 
     /**
      * Constructor
@@ -101,26 +185,96 @@ public class SimaticGenericDevice implements SimaticIDevice {
     public SimaticGenericDevice(int pollRate, Charset charset, SimaticUpdateMode updateMode) {
         this.charset = charset;
         this.updateMode = updateMode;
+        this.pollRate = pollRate;
         if (pollRate > 0) {
-            periodicJob = scheduler.scheduleAtFixedRate(() -> {
-                if (System.currentTimeMillis() - lastExecution >= pollRate) {
-                    lastExecution = System.currentTimeMillis();
-                    execute();
-                }
-            }, 500, pollRate, TimeUnit.MILLISECONDS);
+            schedulePolling(pollRate);
         } else {
-            scheduler.execute(() -> {
-                while (!disposed) {
-                    execute();
-                    if (!reconnecting.get()) {
-                        try {
-                            Thread.sleep(500);
-                        } catch (InterruptedException e) {
-
-                        }
-                    }
-                }
-            });
+            cycleRate = 500;
+            nextExecution = System.currentTimeMillis() + getPhaseDelay(cycleRate);
+            scheduler.schedule(this::executeContinuous, getPhaseDelay(cycleRate), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Return delay to next start of cycle in phase of this device. Cycle starts are aligned to wall clock so phase
+     * stays same after rescheduling.
+     *
+     * @param rate Cycle period [ms]
+     * @return Delay [ms]
+     */
+    private long getPhaseDelay(int rate) {
+        return Math.floorMod(Math.round(phase * rate) - System.currentTimeMillis(), (long) rate);
+    }
+
+    /**
+     * Record deviation of cycle start from its planned start
+     *
+     * @param deviation [ms]
+     */
+    private void addJitter(long deviation) {
+        cycleJitter.accumulateAndGet(Math.abs(deviation), Math::max);
+    }
+
+    /**
+     * Continuous read cycle. Next cycle is scheduled after previous one finished so no thread is held between cycles.
+     */
+    private void executeContinuous() {
+        if (disposed) {
+            return;
+        }
+        addJitter(System.currentTimeMillis() - nextExecution);
+        execute();
+        if (!disposed) {
+            nextExecution = System.currentTimeMillis() + cycleRate;
+            scheduler.schedule(this::executeContinuous, cycleRate, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Schedule periodic read cycle. Cycle starts in phase of this device so devices with same period do not start
+     * together.
+     *
+     * @param rate Cycle period [ms]
+     */
+    private synchronized void schedulePolling(int rate) {
+        var job = periodicJob;
+        if (job != null) {
+            if (rate == cycleRate) {
+                return;
+            }
+            job.cancel(false);
+        }
+        cycleRate = rate;
+        if (disposed) {
+            return;
+        }
+        final long offset = Math.round(phase * rate);
+        periodicJob = scheduler.scheduleAtFixedRate(() -> {
+            final long now = System.currentTimeMillis();
+            // skip delayed run only, late start of cycle is not a reason to lose it
+            if (now - lastExecution >= rate / 2) {
+                lastExecution = now;
+                long deviation = Math.floorMod(now - offset, (long) rate);
+                addJitter(Math.min(deviation, rate - deviation));
+                execute();
+            }
+        }, getPhaseDelay(rate), rate, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Update period of read cycle by fastest read interval
+     */
+    private void updateCycleRate() {
+        int rate = (pollRate > 0) ? pollRate : 500;
+        for (SimaticReadTier tier : readPlan.getTiers()) {
+            if (tier.getInterval() > 0 && tier.getInterval() < rate) {
+                rate = tier.getInterval();
+            }
+        }
+        if (pollRate > 0) {
+            schedulePolling(rate);
+        } else {
+            cycleRate = rate;
         }
     }
 
@@ -131,12 +285,52 @@ public class SimaticGenericDevice implements SimaticIDevice {
         }
         disposed = true;
         close();
-        if (periodicJob != null) {
-            periodicJob.cancel(true);
-            periodicJob = null;
+        synchronized (this) {
+            if (periodicJob != null) {
+                periodicJob.cancel(true);
+                periodicJob = null;
+            }
+        }
+        scheduler.shutdownNow();
+        dispatcher.dispose();
+        final var s = snapshot;
+        if (s != null) {
+            s.close();
         }
     }
 
+    /**
+     * Enter data processing. Count of devices processing data at once is limited by count of processors, waiting
+     * devices are served in order of arrival.
+     *
+     * @return False if waiting thread was interrupted
+     */
+    protected boolean enterProcessing() {
+        try {
+            processing.acquire();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Leave data processing
+     */
+    protected void leaveProcessing() {
+        processing.release();
+    }
+
+    /**
+     * Return executor owning communication of this device
+     *
+     * @return
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Called at specified period
      */
@@ -150,8 +344,21 @@ public class SimaticGenericDevice implements SimaticIDevice {
     }
 
     @Override
-    public void setDataAreas(@NonNull ArrayList<@NonNull SimaticChannel> stateItems) {
-        this.stateItems = stateItems;
+    public void updateDataAreas(@NonNull List<@NonNull SimaticChannel> removed,
+            @NonNull List<@NonNull SimaticChannel> added, boolean complete) {
+        synchronized (planLock) {
+            for (SimaticChannel item : removed) {
+                channelIndex.remove(getPollInterval(item), item);
+            }
+            for (SimaticChannel item : added) {
+                channelIndex.add(getPollInterval(item), item);
+            }
+            itemsVersion++;
+            itemsComplete = complete;
+        }
+        if (snapshotPending) {
+            restoreSnapshot(added);
+        }
         // prepare data if device is connected (depends on PDU size)
         if (isConnected()) {
             prepareData();
@@ -201,6 +408,10 @@ public class SimaticGenericDevice implements SimaticIDevice {
             return;
         }
         connected = state;
+        if (state) {
+            // restored states are replaced by states read from device
+            snapshotTime = 0;
+        }
         if (onChange != null) {
             try {
                 onChange.onConnectionChanged(state);
@@ -221,35 +432,62 @@ public class SimaticGenericDevice implements SimaticIDevice {
     }
 
     /**
-     * Reconnect device
+     * Reconnect device. Delay between attempts grows exponentially with random part so devices failed at same time do
+     * not retry together.
      */
     protected void reconnectWithDelaying() {
         if (reconnecting.compareAndSet(false, true)) {
             logger.debug("{} - reconnectJob(): started...", toString());
+            rcAttempts = 0;
+            rcNext = 0;
         }
 
-        logger.debug("{} - reconnectJob(): {}/{}/{}", toString(), rcTest, rcTestMax, RECONNECT_DELAY_MAX);
+        final long now = System.currentTimeMillis();
+        logger.debug("{} - reconnectJob(): attempt {}, next in {}ms", toString(), rcAttempts,
+                Math.max(0, rcNext - now));
 
-        if (rcTest < rcTestMax) {
-            rcTest++;
+        if (now < rcNext) {
             return;
         }
 
         logger.debug("{} - reconnectJob(): reconnecting...", toString());
         if (reconnect()) {
-            rcTest = 0;
-            rcTestMax = 0;
+            rcAttempts = 0;
+            rcNext = 0;
 
             logger.debug("{} - reconnectJob(): reconnected", toString());
             reconnecting.set(false);
         } else {
-            if (rcTestMax < RECONNECT_DELAY_MAX) {
-                rcTestMax++;
-            }
-            rcTest = 0;
+            rcAttempts++;
+            final long delay = Math.min(RECONNECT_DELAY_MAX, RECONNECT_DELAY_MIN << Math.min(rcAttempts - 1, 16));
+            // half of delay is random
+            rcNext = System.currentTimeMillis() + delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        }
+    }
+
+    /**
+     * Enter connection attempt. Count of attempts in progress at once is limited for all devices so reconnect of many
+     * devices does not overload network or host.
+     *
+     * @return False if waiting thread was interrupted
+     */
+    protected boolean enterConnecting() {
+        try {
+            connecting.acquire();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
+    /**
+     * Leave connection attempt
+     */
+    protected void leaveConnecting() {
+        connecting.release();
+    }
+
     /**
      * Send command into device channel
      *
@@ -279,34 +517,32 @@ public class SimaticGenericDevice implements SimaticIDevice {
             logger.debug("{} - Adding command into queue", toString());
         }
 
-        // lock queue
-        lock.lock();
+        if (!commandQueue.offer(data)) {
+            logger.warn("{} - Command queue is full. Command for {} rejected.", toString(), data.toString());
+            return;
+        }
 
-        try {
-            if (commandQueue.size() == 0) {
-                // add data
-                commandQueue.addFirst(data);
-            } else {
-                for (SimaticWriteDataArea item : commandQueue) {
-                    if (!item.isItemOutOfRange(data.getAddress())) {
-                        item.insert(data);
+        // queue is drained by device executor only, commands arriving within window are written together
+        scheduleWrite(writeBatchWindow);
+    }
 
-                        break;
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            logger.error("{} - Cannot insert data into command queue.", toString(), ex);
-        } finally {
-            // unlock queue
-            lock.unlock();
+    /**
+     * Schedule drain of command queue unless already scheduled
+     *
+     * @param delay [ms]
+     */
+    private void scheduleWrite(int delay) {
+        if (disposed || !writeScheduled.compareAndSet(false, true)) {
+            return;
         }
-
-        processCommandQueue();
+        scheduler.schedule(() -> {
+            writeScheduled.set(false);
+            processCommandQueue();
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Check if queue is not empty and send data to device
+     * Drain command queue. Commands are written in requests as long as queue is not empty.
      *
      */
     protected void processCommandQueue() {
@@ -330,26 +566,48 @@ public class SimaticGenericDevice implements SimaticIDevice {
             return;
         }
 
-        SimaticWriteDataArea dataToSend = null;
-
+        boolean failed = false;
         try {
-            // queue is empty -> exit
-            if (commandQueue.isEmpty()) {
-                return;
-            }
+            // check if device responds
+            while (canSend() && this.portState.getState() != PortStates.NOT_RESPONDING) {
+                // take as many commands as fit into one PDU
+                final SimaticWriteRequest dataToSend = commandQueue.poll(pduSize);
+                if (dataToSend == null) {
+                    break;
+                }
+
+                if (!sendDataOut(dataToSend) && shouldReconnect()) {
+                    // rest is written after reconnect
+                    failed = true;
+                    break;
+                }
 
-            // check if device responds and there is lot of commands
-            if (this.portState.getState() != PortStates.NOT_RESPONDING) {
-                dataToSend = commandQueue.poll();
+                final long now = System.nanoTime();
+                for (SimaticWriteDataArea area : dataToSend.getAreas()) {
+                    final long latency = now - area.getCreated();
+                    commandLatency.accumulateAndGet(latency, Math::max);
+                }
             }
         } catch (Exception e) {
-            logger.error("{} - Cannost retrieve data from command queue.", toString(), e);
+            logger.error("{} - Cannot write data from command queue.", toString(), e);
+            failed = true;
         } finally {
             lock.unlock();
         }
 
-        if (dataToSend != null) {
-            sendDataOut(dataToSend);
+        // command added after last poll could not get lock
+        if (!failed && !commandQueue.isEmpty() && canSend()
+                && this.portState.getState() != PortStates.NOT_RESPONDING) {
+            scheduleWrite(0);
+        }
+    }
+
+    /**
+     * Write pending commands. Called by read cycle between exchanges so commands need not wait for whole cycle.
+     */
+    protected void writePending() {
+        if (!commandQueue.isEmpty()) {
+            processCommandQueue();
         }
     }
 
@@ -361,17 +619,60 @@ public class SimaticGenericDevice implements SimaticIDevice {
      * Write data into device stream
      *
      * @param data
-     *            Item data with compiled packet
+     *            Commands written in one request
      * @return
      *         Return true when data were sent
      */
-    protected boolean sendDataOut(SimaticWriteDataArea data) {
+    protected boolean sendDataOut(SimaticWriteRequest data) {
 
         logger.warn("{} - Generic device cant send data", this.toString());
 
         return false;
     }
 
+    /**
+     * Collect requests which should be read in current cycle. If interval is longer than cycle, requests are spread
+     * over cycles of read period so only part of them is read in each cycle. Must be called from read cycle only.
+     *
+     * @param plan Current read plan
+     * @param now Current time [ms]
+     * @param cycle Cycle period [ms]
+     * @param out List for collected requests
+     */
+    private void collectDue(SimaticReadPlan plan, long now, int cycle, List<SimaticReadRequest> out) {
+        for (SimaticReadTier tier : plan.tiers) {
+            final SimaticReadRequest[] requests = tier.requests;
+            final int interval = tier.interval;
+            if (requests.length == 0) {
+                continue;
+            }
+            final TierSchedule schedule = tierSchedules.computeIfAbsent(interval, k -> new TierSchedule());
+            // replaced plan may have less requests, read period continues with them
+            if (schedule.cursor >= requests.length) {
+                schedule.cursor = 0;
+            }
+            if (schedule.cursor == 0) {
+                if (now < schedule.nextRead) {
+                    continue;
+                }
+                schedule.nextRead = now + interval;
+            }
+            if (interval <= cycle || cycle <= 0) {
+                out.addAll(Arrays.asList(requests));
+                continue;
+            }
+
+            // read only part of requests, all requests are read within interval
+            final int budget = Math.max(1, (int) Math.ceil((double) requests.length * cycle / interval));
+            for (int i = 0; i < budget && schedule.cursor < requests.length; i++) {
+                out.add(requests[schedule.cursor++]);
+            }
+            if (schedule.cursor >= requests.length) {
+                schedule.cursor = 0;
+            }
+        }
+    }
+
     /**
      * Check new data for all connected devices
      */
@@ -395,24 +696,19 @@ public class SimaticGenericDevice implements SimaticIDevice {
          * logger.trace("{} - Locking", toString());
          */
 
-        try {
-            for (SimaticReadDataArea area : readAreasList.getData()) {
-                try {
-                    // read data
-                    readDataArea(area);
-                } catch (SimaticReadException e) {
-                    if (!disposed && isConnected()) {
-                        logger.error("{} - ", toString(), e);
-                    }
-                    if (e.fatal) {
-                        return;
-                    } else {
-                        continue;
-                    }
-                }
+        // collect requests of all tiers due in this cycle
+        final long now = System.currentTimeMillis();
+        cycleRequests.clear();
+        collectDue(readPlan, now, cycleRate, cycleRequests);
 
-                readed++;
-                readedBytes += area.getAddressSpaceLength();
+        try {
+            if (!cycleRequests.isEmpty()) {
+                // read data
+                readDataRequests(cycleRequests);
+            }
+        } catch (SimaticReadException e) {
+            if (!disposed && isConnected()) {
+                logger.error("{} - ", toString(), e);
             }
         } catch (Exception ex) {
             logger.error("{} - Read data error", toString(), ex);
@@ -420,60 +716,90 @@ public class SimaticGenericDevice implements SimaticIDevice {
             /*
              * logger.trace("{} - Unlocking", toString());
              */
+            for (SimaticReadRequest request : cycleRequests) {
+                if (request.isAnswered()) {
+                    readed++;
+                    readedBytes += request.getAddressSpaceLength();
+                }
+            }
+
             readLock.unlock();
 
+            // device information is refreshed after first data are delivered
+            if (infoRefreshPending && isConnected()) {
+                infoRefreshPending = false;
+                scheduler.execute(this::refreshDeviceInfo);
+            }
+
             long diff;
             if ((diff = (System.currentTimeMillis() - metricsStart)) >= 5000 || metricsStart == 0) {
                 long requests = (long) Math.ceil(readed * 1000.0 / diff);
                 long bytes = (long) Math.ceil(readedBytes * 1000.0 / diff);
+                long latency = TimeUnit.NANOSECONDS.toMillis(commandLatency.getAndSet(0));
+                long queuePeak = commandQueue.takePeakSize();
+                long coalesced = commandQueue.takeCoalesced();
+                long rejected = commandQueue.takeRejected();
+                long jitter = cycleJitter.getAndSet(0);
+                long dispatchPeak = dispatcher.takePeakSize();
+                long dispatchLag = dispatcher.takeLag();
 
                 metricsStart = System.currentTimeMillis();
                 readed = readedBytes = 0;
 
                 if (onUpdate != null) {
-                    onUpdate.onMetricsUpdated(requests, bytes);
+                    onUpdate.onMetricsUpdated(requests, bytes, latency, queuePeak, coalesced, rejected, jitter,
+                            dispatchPeak, dispatchLag);
                 }
             }
         }
     }
 
     @Override
-    public void readDataArea(SimaticReadDataArea area) throws SimaticReadException {
+    public void readDataRequests(List<SimaticReadRequest> requests) throws SimaticReadException {
     }
 
     /**
      * After item configuration is loaded this method prepare reading areas for this device
      */
     public void prepareData() {
-        if (stateItems == null) {
-            return;
+        prepareData(true);
+    }
+
+    /**
+     * Prepare reading areas for this device
+     *
+     * @param fromStore Use persisted plan if all channels fit in it, previous plan otherwise. False to plan all
+     *            channels again.
+     */
+    protected void prepareData(boolean fromStore) {
+        synchronized (planLock) {
+            prepareDataLocked(fromStore);
         }
+        updateCycleRate();
+    }
 
-        // sort items by address
-        Collections.sort(stateItems, new Comparator<SimaticChannel>() {
-            @Override
-            public int compare(SimaticChannel o1, SimaticChannel o2) {
-                var o1A = o1.getStateAddress();
-                var o2A = o2.getStateAddress();
-                if (o1A != null && o2A != null) {
-                    return (o1A).compareTo(o2A);
-                } else if (o2A != null) {
-                    return 1;
-                } else {
-                    return 0;
-                }
-            }
-        });
+    /**
+     * Return read interval of channel
+     *
+     * @param item
+     * @return Interval [ms]
+     */
+    private int getPollInterval(SimaticChannel item) {
+        final int interval = item.getPollInterval();
+        return (interval == 0) ? pollRate : interval;
+    }
 
-        // This lock achieves two things:
-        // 1) It blocks until checkNewData finishes reading, so that readAreasList isn't null white checkNewData access
-        // it
-        // 2) It doesn't allow checkNewData to run until readAreasList is propagated
-        // -- AchilleGR
+    private void prepareDataLocked(boolean fromStore) {
+        final var store = planStore;
+        final var spans = (fromStore && store != null) ? store.getSpans(pduSize) : null;
+        // until all things are initialized stored areas are read whole so polling starts before channels are set
+        final boolean keepUnbound = spans != null && !itemsComplete;
+        if (itemsVersion == 0 && !keepUnbound) {
+            return;
+        }
 
-        readLock.lock();
+        // read cycle in progress is not waited for, it finishes with previous plan
         if (logger.isDebugEnabled()) {
-            logger.debug("{} - prepareData Locked", this.toString());
             int readLimit = pduSize > 0 ? pduSize - SimaticIReadWriteDataArea.READ_OVERHEAD
                     : SimaticIReadWriteDataArea.MAX_DATA_LENGTH;
             int writeLimit = pduSize > 0 ? pduSize - SimaticIReadWriteDataArea.WRITE_OVERHEAD
@@ -481,42 +807,174 @@ public class SimaticGenericDevice implements SimaticIDevice {
             logger.debug("{} - read area data limit = {}B, write area data limit = {}B", this.toString(), readLimit,
                     writeLimit);
         }
-        SimaticReadDataArea readDataArea = null;
-        readAreasList.clear();
+        // read intervals of tiers
+        final TreeSet<Integer> intervals = new TreeSet<Integer>(channelIndex.getIntervals());
+        if (keepUnbound) {
+            for (SimaticPlanStore.Span span : spans) {
+                intervals.add(span.interval);
+            }
+        }
 
-        // prepare read queues
-        for (SimaticChannel item : stateItems) {
-            // no data for read
-            if (item.getStateAddress() == null) {
-                continue;
+        // prepare read tiers
+        // previous plan is taken over only for same PDU size, changed channels are planned again
+        final SimaticReadPlan previous = readPlan;
+        final boolean incremental = fromStore && previous.getPduSize() == pduSize;
+        final ArrayList<SimaticReadTier> tiers = new ArrayList<SimaticReadTier>(intervals.size());
+        boolean seeded = spans != null;
+        for (int interval : intervals) {
+            SimaticReadTier tier = (spans != null)
+                    ? SimaticReadPlanner.planFromSpans(interval, channelIndex.getChannels(interval), spans,
+                            keepUnbound, costModel, pduSize)
+                    : null;
+            if (tier == null) {
+                tier = SimaticReadPlanner.plan(interval, channelIndex,
+                        (incremental && !planSeeded) ? previous.getTier(interval) : null, costModel, pduSize);
+                seeded = false;
             }
+            tiers.add(tier);
 
-            //
-            if (readDataArea == null || readDataArea.isItemOutOfRange(item.getStateAddress())) {
-                readDataArea = new SimaticReadDataArea(item, pduSize);
-                readAreasList.put(readDataArea);
-            } else {
-                try {
-                    readDataArea.addItem(item);
-                } catch (Exception e) {
-                    logger.error(e.getMessage());
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} - readAreas(Interval={}ms,Size={},Requests={}):{}", this.toString(), interval,
+                        tier.size(), tier.getRequests().size(), tier.getRequestsString());
             }
         }
+        channelIndex.clearChanges();
+        // requests are bound to new channel table before plan is published
+        readPlan = new SimaticReadPlan(tiers, new SimaticChannelTable(tiers, previous.table), itemsVersion, pduSize);
+        planSeeded = seeded;
+        if (store != null && !seeded) {
+            store.save(pduSize, tiers);
+        }
+        final var s = snapshot;
+        if (s != null) {
+            try {
+                // area data are written by read cycle
+                scheduler.execute(() -> s.setLayout(tiers));
+            } catch (RejectedExecutionException ex) {
+                // device is disposed
+            }
+        }
+    }
 
-        if (logger.isDebugEnabled()) {
-            StringBuilder message = new StringBuilder();
-            message.append(String.format("%s - readAreas(Size=%d):", this.toString(), readAreasList.data.size()));
+    /**
+     * Reuse read plan after reconnect if it was prepared for same channels and PDU size. Areas are invalidated so all
+     * channels get fresh state from first read.
+     *
+     * @return False if plan must be prepared again
+     */
+    protected boolean reusePlan() {
+        final SimaticReadPlan plan = readPlan;
+        if (!plan.isPlannedFor(itemsVersion, pduSize)) {
+            return false;
+        }
+        for (SimaticReadTier tier : plan.tiers) {
+            for (SimaticReadDataArea area : tier.areas) {
+                area.invalidate();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Refresh device information deferred after connect
+     */
+    protected void refreshDeviceInfo() {
+    }
+
+    /**
+     * Set persisted read plan. Stored plan is loaded immediately.
+     *
+     * @param store
+     */
+    public void setPlanStore(@Nullable SimaticPlanStore store) {
+        if (store != null && store.load()) {
+            logger.debug("{} - stored read plan loaded", toString());
+        }
+        planStore = store;
+    }
+
+    /**
+     * Set snapshot of process image. Stored snapshot is loaded immediately, channel states are restored from it when
+     * channels are set.
+     *
+     * @param snapshot
+     */
+    public void setSnapshot(@Nullable SimaticImageSnapshot snapshot) {
+        snapshotPending = snapshot != null && snapshot.load();
+        this.snapshot = snapshot;
+    }
 
-            for (SimaticReadDataArea i : readAreasList.getData()) {
-                message.append(i.toString());
-                message.append(";");
+    /**
+     * Restore channel states from snapshot. Channel which got state from device already is not changed. Restored
+     * channels are marked stale until their area is read.
+     */
+    private void restoreSnapshot(List<@NonNull SimaticChannel> items) {
+        final var s = snapshot;
+        snapshotPending = false;
+        if (s == null) {
+            return;
+        }
+        final ArrayList<SimaticChannel> channels = new ArrayList<SimaticChannel>();
+        final ArrayList<State> states = new ArrayList<State>();
+        for (SimaticChannel item : items) {
+            final State state = s.getState(item);
+            if (state != null) {
+                channels.add(item);
+                states.add(state);
+            }
+        }
+        if (channels.isEmpty()) {
+            return;
+        }
+        final long time = snapshotTime = s.getStoredTime();
+        logger.debug("{} - {} channel states restored from snapshot", toString(), channels.size());
+        dispatcher.execute(() -> {
+            final Set<SimaticGenericHandler> things = new HashSet<SimaticGenericHandler>();
+            for (int i = 0; i < channels.size(); i++) {
+                final SimaticChannel channel = channels.get(i);
+                final SimaticGenericHandler thing = channel.getThing();
+                if (channel.restoreState(states.get(i), time) && thing != null) {
+                    things.add(thing);
+                }
             }
+            for (SimaticGenericHandler thing : things) {
+                thing.updateStaleStatus();
+            }
+        });
+    }
 
-            logger.debug(message.toString());
+    /**
+     * Return time of data restored from snapshot
+     *
+     * @return Time [ms], zero if nothing was restored
+     */
+    public long getSnapshotTime() {
+        return snapshotTime;
+    }
+
+    /**
+     * Write read data of area into snapshot
+     *
+     * @param area
+     */
+    protected void storeImage(SimaticReadDataArea area) {
+        final var s = snapshot;
+        if (s != null) {
+            s.update(area);
         }
-        logger.debug("{} - prepareData Unlocking", this.toString());
-        readLock.unlock();
+    }
+
+    /**
+     * Set time commands are collected before they are written in one request
+     *
+     * @param window Batching window [ms], 0 to write immediately
+     */
+    public void setWriteBatchWindow(int window) {
+        writeBatchWindow = Math.max(0, window);
+    }
+
+    public int getWriteBatchWindow() {
+        return writeBatchWindow;
     }
 
     public boolean shouldReconnect() {
@@ -527,8 +985,58 @@ public class SimaticGenericDevice implements SimaticIDevice {
         return pduSize;
     }
 
-    public SimaticReadQueue getReadAreas() {
-        return readAreasList;
+    public int getParallelJobs() {
+        return parallelJobs;
+    }
+
+    /**
+     * Send channel state decoded from process image. Image is decoded on device executor, so data are not changed by
+     * read cycle meanwhile. Last channel state is sent if channel data are not read yet.
+     *
+     * @param channel
+     * @param callback Receiver of state
+     */
+    public void refreshState(SimaticChannel channel, Consumer<State> callback) {
+        try {
+            scheduler.execute(() -> sendState(channel, getImageState(channel), callback));
+        } catch (RejectedExecutionException ex) {
+            // device is disposed
+            sendState(channel, null, callback);
+        }
+    }
+
+    private void sendState(SimaticChannel channel, @Nullable State state, Consumer<State> callback) {
+        final State s = (state != null) ? state : channel.getState();
+        if (s != null) {
+            callback.accept(s);
+        }
+    }
+
+    /**
+     * Return channel state decoded from process image. Must be called on device executor.
+     *
+     * @param channel
+     * @return Null if channel data are not read yet
+     */
+    protected @Nullable State getImageState(SimaticChannel channel) {
+        final SimaticReadDataArea area = readPlan.findArea(channel);
+        if (area == null || !area.isValid()) {
+            return null;
+        }
+        return channel.decodeState(area.getDataBuffer(), area.getStartAddress());
+    }
+
+    /**
+     * Return current read plan
+     *
+     * @return
+     */
+    public SimaticReadPlan getReadPlan() {
+        return readPlan;
+    }
+
+    public SimaticCostModel getCostModel() {
+        return costModel;
     }
 
     private ConnectionChanged onChange = null;
@@ -8,7 +8,7 @@
  */
 package org.openhab.binding.simatic.internal.simatic;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.openhab.core.types.Command;
@@ -25,7 +25,8 @@ public interface SimaticIDevice {
     }
 
     public interface MetricsUpdated {
-        public void onMetricsUpdated(long requests, long bytes);
+        public void onMetricsUpdated(long requests, long bytes, long commandLatency, long commandQueue,
+                long commandsCoalesced, long commandsRejected, long cycleJitter, long dispatchQueue, long dispatchLag);
     }
 
     /**
@@ -58,10 +59,14 @@ public interface SimaticIDevice {
     public void sendData(SimaticChannel item, Command command);
 
     /**
-     * Set read write areas
+     * Update read write areas by changed channels
      *
+     * @param removed Removed channels with state address
+     * @param added Added channels with state address
+     * @param complete All things of device are initialized
      */
-    public void setDataAreas(@NonNull ArrayList<@NonNull SimaticChannel> stateItems);
+    public void updateDataAreas(@NonNull List<@NonNull SimaticChannel> removed,
+            @NonNull List<@NonNull SimaticChannel> added, boolean complete);
 
     /**
      * Function return device string representation
@@ -80,10 +85,10 @@ public interface SimaticIDevice {
     public void onMetricsUpdated(MetricsUpdated onUpdateMethod);
 
     /**
-     * Check new data for all connected devices
+     * Read requests. Each request is transferred in one PDU, several requests may be outstanding at once.
      *
      * @throws SimaticReadException
      *
      */
-    void readDataArea(SimaticReadDataArea area) throws SimaticReadException;
+    void readDataRequests(List<SimaticReadRequest> requests) throws SimaticReadException;
 }
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Snapshot of device process image in memory mapped file. Data of read areas are written into mapped file when they
+ * change, so snapshot costs no file operation in read cycle. After restart channel states are restored from snapshot
+ * before device is connected.
+ *
+ * File layout: header (magic, version, time of last update, areas count), area descriptors (area, DB number, start,
+ * length, data position, valid flag) and area data. Areas count is written after descriptors, so snapshot interrupted
+ * while it is laid out is loaded without areas. File is mapped again only when layout does not fit into it.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticImageSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(SimaticImageSnapshot.class);
+
+    static final int MAGIC = 0x53375349;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 4 + 4 + 8 + 4;
+    static final int DESCRIPTOR_LENGTH = 6 * 4;
+    static final int TIME_POSITION = 8;
+    static final int COUNT_POSITION = 16;
+
+    /**
+     * Stored area data
+     */
+    static class Region {
+        final SimaticPLCAreaTypes area;
+        final int dbNumber;
+        final int start;
+        final byte[] data;
+
+        Region(SimaticPLCAreaTypes area, int dbNumber, int start, byte[] data) {
+            this.area = area;
+            this.dbNumber = dbNumber;
+            this.start = start;
+            this.data = data;
+        }
+
+        boolean contains(SimaticPLCAddress address) {
+            return address.getArea() == area && (area != SimaticPLCAreaTypes.DB || address.getDBNumber() == dbNumber)
+                    && address.getByteOffset() >= start
+                    && address.getByteOffset() + address.getDataLength() <= start + data.length;
+        }
+
+        boolean isSame(SimaticReadDataArea other) {
+            return other.getArea() == area && other.getDBNumber() == dbNumber && other.getStartAddress() == start
+                    && other.getAddressSpaceLength() == data.length;
+        }
+    }
+
+    private final Path file;
+    private @Nullable FileChannel channel = null;
+    private @Nullable MappedByteBuffer image = null;
+    /** descriptor index of each area of current layout **/
+    private final IdentityHashMap<SimaticReadDataArea, Integer> layout = new IdentityHashMap<>();
+    /** data of current layout positions **/
+    private int[] positions = new int[0];
+    /** regions loaded from file, kept until they are laid out into mapped file **/
+    private List<Region> stored = new ArrayList<Region>();
+    /** time of stored data [ms] **/
+    private long storedTime = 0;
+
+    public SimaticImageSnapshot(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load snapshot stored in file
+     *
+     * @return False if there is no valid snapshot
+     */
+    public synchronized boolean load() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.debug("Unknown snapshot format of {}", file);
+                return false;
+            }
+            storedTime = buffer.getLong();
+            stored = readRegions(buffer, buffer.getInt(COUNT_POSITION));
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Cannot load process image snapshot {}. {}", file, ex.getMessage());
+            stored = new ArrayList<Region>();
+            storedTime = 0;
+        }
+        return !stored.isEmpty();
+    }
+
+    /**
+     * Read stored areas. Counts and positions are checked against buffer, so corrupted file is rejected.
+     *
+     * @throws IOException When descriptors or data do not fit into buffer
+     */
+    private static List<Region> readRegions(ByteBuffer buffer, int count) throws IOException {
+        final SimaticPLCAreaTypes[] types = SimaticPLCAreaTypes.values();
+        if (count < 0 || HEADER_LENGTH + (long) count * DESCRIPTOR_LENGTH > buffer.limit()) {
+            throw new IOException("Invalid areas count " + count);
+        }
+        final List<Region> regions = new ArrayList<Region>(count);
+        for (int i = 0; i < count; i++) {
+            final int descriptor = HEADER_LENGTH + i * DESCRIPTOR_LENGTH;
+            final int area = buffer.getInt(descriptor);
+            final int length = buffer.getInt(descriptor + 12);
+            final int position = buffer.getInt(descriptor + 16);
+            if (buffer.getInt(descriptor + 20) == 0 || area < 0 || area >= types.length) {
+                continue;
+            }
+            if (length < 0 || position < 0 || (long) position + length > buffer.limit()) {
+                throw new IOException("Invalid data of area " + i);
+            }
+            final byte[] data = new byte[length];
+            buffer.get(position, data, 0, length);
+            regions.add(new Region(types[area], buffer.getInt(descriptor + 4), buffer.getInt(descriptor + 8), data));
+        }
+        return regions;
+    }
+
+    /**
+     * Return channel state from stored data
+     *
+     * @param channel
+     * @return Null if channel data are not stored
+     */
+    public synchronized @Nullable State getState(SimaticChannel channel) {
+        final SimaticPLCAddress address = channel.getStateAddress();
+        if (address == null) {
+            return null;
+        }
+        for (Region region : stored) {
+            if (region.contains(address)) {
+                return channel.decodeState(region.data, region.start);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return time of stored data
+     *
+     * @return Time [ms], zero if nothing was loaded
+     */
+    public synchronized long getStoredTime() {
+        return storedTime;
+    }
+
+    /**
+     * Set areas of read plan. Snapshot file is laid out for them, data of areas are taken from areas read already or
+     * from loaded snapshot. Time of snapshot is changed only when read data are written. Must be called on device
+     * executor, read cycle writes data of areas.
+     *
+     * @param tiers Read tiers
+     */
+    public synchronized void setLayout(List<SimaticReadTier> tiers) {
+        final List<SimaticReadDataArea> areas = new ArrayList<SimaticReadDataArea>();
+        for (SimaticReadTier tier : tiers) {
+            for (SimaticReadDataArea area : tier.areas) {
+                areas.add(area);
+            }
+        }
+
+        // data of previous layout are overwritten by new layout
+        final MappedByteBuffer previous = image;
+        if (previous != null) {
+            try {
+                stored = readRegions(previous, positions.length);
+            } catch (IOException ex) {
+                logger.warn("Cannot read process image snapshot {}. {}", file, ex.getMessage());
+                stored = new ArrayList<Region>();
+            }
+            storedTime = previous.getLong(TIME_POSITION);
+        }
+        image = null;
+        layout.clear();
+
+        int size = HEADER_LENGTH + areas.size() * DESCRIPTOR_LENGTH;
+        positions = new int[areas.size()];
+        for (int i = 0; i < areas.size(); i++) {
+            positions[i] = size;
+            size += areas.get(i).getAddressSpaceLength();
+        }
+
+        try {
+            FileChannel fc = channel;
+            if (fc == null) {
+                Files.createDirectories(file.getParent());
+                fc = channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            }
+            // file is never shrunk, data behind layout are ignored. File grows with reserve for added areas
+            MappedByteBuffer buffer = previous;
+            if (buffer == null || buffer.capacity() < size) {
+                buffer = fc.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size + size / 4, fc.size()));
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(COUNT_POSITION, 0);
+            for (int i = 0; i < areas.size(); i++) {
+                final SimaticReadDataArea area = areas.get(i);
+                final int descriptor = HEADER_LENGTH + i * DESCRIPTOR_LENGTH;
+                buffer.putInt(descriptor, area.getArea().ordinal());
+                buffer.putInt(descriptor + 4, area.getDBNumber());
+                buffer.putInt(descriptor + 8, area.getStartAddress());
+                buffer.putInt(descriptor + 12, area.getAddressSpaceLength());
+                buffer.putInt(descriptor + 16, positions[i]);
+
+                byte[] data = area.isValid() ? area.getDataBuffer() : null;
+                if (data == null) {
+                    for (Region region : stored) {
+                        if (region.isSame(area)) {
+                            data = region.data;
+                            break;
+                        }
+                    }
+                }
+                if (data != null) {
+                    buffer.put(positions[i], data, 0, area.getAddressSpaceLength());
+                }
+                buffer.putInt(descriptor + 20, data != null ? 1 : 0);
+                layout.put(area, i);
+            }
+            // data are not newer than time of previous layout or loaded snapshot
+            buffer.putLong(TIME_POSITION, storedTime);
+            buffer.putInt(COUNT_POSITION, areas.size());
+            image = buffer;
+            stored = new ArrayList<Region>();
+        } catch (IOException ex) {
+            logger.warn("Cannot map process image snapshot {}. {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Write read data of area into snapshot
+     *
+     * @param area
+     */
+    public synchronized void update(SimaticReadDataArea area) {
+        final MappedByteBuffer buffer = image;
+        final Integer index = layout.get(area);
+        if (buffer == null || index == null) {
+            return;
+        }
+        buffer.put(positions[index], area.getDataBuffer(), 0, area.getAddressSpaceLength());
+        buffer.putInt(HEADER_LENGTH + index * DESCRIPTOR_LENGTH + 20, 1);
+        buffer.putLong(TIME_POSITION, System.currentTimeMillis());
+    }
+
+    /**
+     * Write mapped data and close file
+     */
+    public synchronized void close() {
+        final MappedByteBuffer buffer = image;
+        if (buffer != null) {
+            buffer.force();
+        }
+        image = null;
+        layout.clear();
+        final FileChannel fc = channel;
+        channel = null;
+        if (fc != null) {
+            try {
+                fc.close();
+            } catch (IOException ex) {
+                logger.debug("Cannot close process image snapshot {}. {}", file, ex.getMessage());
+            }
+        }
+    }
+}
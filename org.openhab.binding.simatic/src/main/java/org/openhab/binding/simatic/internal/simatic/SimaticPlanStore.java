@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Persisted read plan. Areas of last plan are stored with PDU size they were planned for. After restart stored areas
+ * are read since connect, before things are initialized. Channels are placed into them as things arrive, so polling
+ * starts without planning and calibration.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticPlanStore {
+    private static final Logger logger = LoggerFactory.getLogger(SimaticPlanStore.class);
+
+    /**
+     * Stored read area
+     */
+    public static class Span {
+        final int interval;
+        final SimaticPLCAreaTypes area;
+        final int dbNumber;
+        final int start;
+        final int end;
+
+        Span(int interval, SimaticPLCAreaTypes area, int dbNumber, int start, int end) {
+            this.interval = interval;
+            this.area = area;
+            this.dbNumber = dbNumber;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Check if address lies in span
+         *
+         * @param address
+         * @return
+         */
+        boolean contains(SimaticPLCAddress address) {
+            return address.getArea() == area && (area != SimaticPLCAreaTypes.DB || address.getDBNumber() == dbNumber)
+                    && address.getByteOffset() >= start
+                    && address.getByteOffset() + address.getDataLength() <= end;
+        }
+
+        /**
+         * Return address of whole span
+         *
+         * @return
+         */
+        SimaticPLCAddress getAddress() {
+            return (area == SimaticPLCAreaTypes.DB) ? new SimaticPLCAddress(dbNumber, start, 0, end - start)
+                    : new SimaticPLCAddress(area.toString() + "B", start, 0, end - start);
+        }
+    }
+
+    private final Path file;
+    private int pduSize = 0;
+    private List<Span> spans = new ArrayList<Span>();
+
+    public SimaticPlanStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load stored plan
+     *
+     * @return False if no valid plan is stored
+     */
+    public synchronized boolean load() {
+        spans = new ArrayList<Span>();
+        pduSize = 0;
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts[0].equals("pdu") && parts.length == 2) {
+                    pduSize = Integer.parseInt(parts[1]);
+                } else if (parts.length == 5) {
+                    spans.add(new Span(Integer.parseInt(parts[0]), SimaticPLCAreaTypes.valueOf(parts[1]),
+                            Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+                }
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            logger.warn("Cannot load read plan {}. {}", file, ex.getMessage());
+            spans.clear();
+            pduSize = 0;
+        }
+        return !spans.isEmpty();
+    }
+
+    /**
+     * Store plan of all read intervals
+     *
+     * @param pduSize PDU size plan was prepared for
+     * @param tiers Read tiers
+     */
+    public synchronized void save(int pduSize, List<SimaticReadTier> tiers) {
+        final List<Span> planned = new ArrayList<Span>();
+        final StringBuilder content = new StringBuilder();
+        content.append("# Simatic read plan\n");
+        content.append("pdu ").append(pduSize).append("\n");
+        for (SimaticReadTier tier : tiers) {
+            for (SimaticReadDataArea area : tier.areas) {
+                final Span span = new Span(tier.getInterval(), area.getArea(), area.getDBNumber(),
+                        area.getStartAddress(), area.getStartAddress() + area.getAddressSpaceLength());
+                planned.add(span);
+                content.append(span.interval).append(" ").append(span.area).append(" ").append(span.dbNumber)
+                        .append(" ").append(span.start).append(" ").append(span.end).append("\n");
+            }
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, content.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.spans = planned;
+            this.pduSize = pduSize;
+        } catch (IOException ex) {
+            logger.warn("Cannot save read plan {}. {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Return stored areas if they were planned for PDU size
+     *
+     * @param pduSize Negotiated PDU size
+     * @return Areas or null
+     */
+    public synchronized List<Span> getSpans(int pduSize) {
+        return (this.pduSize == pduSize && !spans.isEmpty()) ? spans : null;
+    }
+}
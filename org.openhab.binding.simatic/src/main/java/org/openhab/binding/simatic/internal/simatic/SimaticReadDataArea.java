@@ -8,8 +8,11 @@
  */
 package org.openhab.binding.simatic.internal.simatic;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.simatic.internal.libnodave.Nodave;
 
 /**
@@ -19,18 +22,33 @@ import org.openhab.binding.simatic.internal.libnodave.Nodave;
  * @since 1.14.0
  */
 public class SimaticReadDataArea implements SimaticIReadWriteDataArea {
-    /** Maximum space between two useful data block **/
-    public static final int GAP_LIMIT = 128;
-
-    final LinkedList<SimaticChannel> items = new LinkedList<SimaticChannel>();
+    final ArrayList<SimaticChannel> items = new ArrayList<SimaticChannel>();
     final SimaticPLCAddress startAddress;
     int areaLength = 0;
     /** data limit PDU size depending **/
     int dataLimit = MAX_DATA_LENGTH;
+    /** read data buffer. Received data are copied here and stay until next read of area **/
+    byte[] data = null;
+    /** buffer holds data of last successful read **/
+    volatile boolean valid = false;
+    /** data of last update used for change detection **/
+    byte[] image = null;
+    /** image holds data of last update, all channels of area got their state **/
+    boolean primed = false;
 
     public SimaticReadDataArea(SimaticChannel firstItem, int pduSize) {
-        startAddress = firstItem.getStateAddress();
+        this(firstItem.getStateAddress(), pduSize);
         items.add(firstItem);
+    }
+
+    /**
+     * Create area without channels. Channels are added later.
+     *
+     * @param address Area start and length
+     * @param pduSize Negotiated PDU size
+     */
+    public SimaticReadDataArea(SimaticPLCAddress address, int pduSize) {
+        startAddress = address;
 
         areaLength = startAddress.getDataLength();
         if (pduSize > READ_OVERHEAD) {
@@ -88,16 +106,11 @@ public class SimaticReadDataArea implements SimaticIReadWriteDataArea {
 
         items.add(item);
 
-        int endAddress = startAddress.getByteOffset();
-
-        for (SimaticChannel i : items) {
-            int itemEnd = i.getStateAddress().getByteOffset() + i.getStateAddress().getDataLength();
-            if (itemEnd > endAddress) {
-                endAddress = itemEnd;
-            }
+        // items are added sorted by address, area end is given by farthest item end
+        int itemEnd = item.getStateAddress().getByteOffset() + item.getStateAddress().getDataLength();
+        if (itemEnd > getEndByteOffset()) {
+            areaLength = itemEnd - startAddress.getByteOffset();
         }
-
-        areaLength = endAddress - startAddress.getByteOffset();
     }
 
     @Override
@@ -114,17 +127,12 @@ public class SimaticReadDataArea implements SimaticIReadWriteDataArea {
         // logger.debug("Address{}/{} = {}", (itemAddress.addressByte + itemAddress.getDataLength()),
         // this.startAddress.addressByte, (itemAddress.addressByte + itemAddress.getDataLength()
         // - this.startAddress.addressByte > MAX_DATA_LENGTH));
-        // logger.debug("Gap{}/{} = {}", itemAddress.addressByte,
-        // (this.startAddress.addressByte + this.getAddressSpaceLength()),
-        // (itemAddress.addressByte - (this.startAddress.addressByte + this.getAddressSpaceLength()) > GAP_LIMIT));
 
-        // must be in area, eventually same DB, in range of maximal frame size and in defined gap space
+        // must be in area, eventually same DB and in range of maximal frame size. Gaps are resolved by read planner.
         return itemAddress.getArea() != this.getArea()
                 || (this.getArea() == SimaticPLCAreaTypes.DB && startAddress.getDBNumber() != itemAddress.getDBNumber())
                 || (itemAddress.getByteOffset() + itemAddress.getDataLength()
-                        - this.startAddress.getByteOffset() > dataLimit)
-                || (itemAddress.getByteOffset()
-                        - (this.startAddress.getByteOffset() + this.getAddressSpaceLength()) > GAP_LIMIT);
+                        - this.startAddress.getByteOffset() > dataLimit);
     }
 
     @Override
@@ -137,7 +145,54 @@ public class SimaticReadDataArea implements SimaticIReadWriteDataArea {
         }
     }
 
-    public LinkedList<SimaticChannel> getItems() {
-        return items;
+    /**
+     * Return channels of area. Channels are not changed after area is planned.
+     *
+     * @return
+     */
+    public List<SimaticChannel> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Return buffer for area data
+     *
+     * @return
+     */
+    public byte[] getDataBuffer() {
+        if (data == null || data.length < areaLength) {
+            data = new byte[areaLength];
+        }
+        return data;
+    }
+
+    /**
+     * Check if channel data are contained in area
+     *
+     * @param address Channel state address
+     * @return
+     */
+    public boolean contains(SimaticPLCAddress address) {
+        return address.getArea() == getArea()
+                && (getArea() != SimaticPLCAreaTypes.DB || address.getDBNumber() == getDBNumber())
+                && address.getByteOffset() >= getStartAddress()
+                && address.getByteOffset() + address.getDataLength() <= getEndByteOffset();
+    }
+
+    /**
+     * Check if buffer holds data of last successful read
+     *
+     * @return
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Drop data of previous read. All channels are updated after next read.
+     */
+    public void invalidate() {
+        valid = false;
+        primed = false;
     }
 }
@@ -20,4 +20,22 @@ public class SimaticReadException extends Exception {
 
         this.fatal = fatal;
     }
+
+    public SimaticReadException(SimaticReadRequest request, Exception ex) {
+        super(String.format("Read data request error (Areas=%s, Error=%s)", request.toString(), ex.getMessage()));
+
+        fatal = true;
+    }
+
+    public SimaticReadException(String message, boolean fatal) {
+        super(message);
+
+        this.fatal = fatal;
+    }
+
+    public SimaticReadException(SimaticReadRequest request, String message, boolean fatal) {
+        super(message);
+
+        this.fatal = fatal;
+    }
 }
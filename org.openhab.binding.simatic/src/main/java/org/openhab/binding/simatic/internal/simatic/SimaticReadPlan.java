@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ *
+ * Read plan of device. Plan is not changed after it is built, new plan replaces it as a whole. Read schedule of tiers
+ * is kept by device, so it is not lost when plan is replaced.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticReadPlan {
+    public static final SimaticReadPlan EMPTY = new SimaticReadPlan(Collections.emptyList(), SimaticChannelTable.EMPTY,
+            -1, -1);
+
+    /** read tiers, fastest first **/
+    final SimaticReadTier[] tiers;
+    /** channels of all tiers **/
+    final SimaticChannelTable table;
+    /** version of channels plan was built for **/
+    final long version;
+    /** PDU size plan was built for **/
+    final int pduSize;
+
+    public SimaticReadPlan(List<SimaticReadTier> tiers, SimaticChannelTable table, long version, int pduSize) {
+        this.tiers = tiers.toArray(new SimaticReadTier[tiers.size()]);
+        this.table = table;
+        this.version = version;
+        this.pduSize = pduSize;
+    }
+
+    public List<SimaticReadTier> getTiers() {
+        return Collections.unmodifiableList(Arrays.asList(tiers));
+    }
+
+    /**
+     * Return tier of read interval
+     *
+     * @param interval Read interval [ms]
+     * @return Null if there is no such tier
+     */
+    public @Nullable SimaticReadTier getTier(int interval) {
+        for (SimaticReadTier tier : tiers) {
+            if (tier.interval == interval) {
+                return tier;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if plan was built for channels and PDU size
+     *
+     * @param version Version of channels, changed with every added or removed channel
+     * @param pduSize PDU size
+     * @return
+     */
+    public boolean isPlannedFor(long version, int pduSize) {
+        return version > 0 && this.version == version && this.pduSize == pduSize;
+    }
+
+    /**
+     * Find area holding data of channel. Areas of all tiers form process image of device.
+     *
+     * @param channel
+     * @return Null if channel is not read
+     */
+    public @Nullable SimaticReadDataArea findArea(SimaticChannel channel) {
+        final SimaticPLCAddress address = channel.getStateAddress();
+        if (address == null) {
+            return null;
+        }
+        for (SimaticReadTier tier : tiers) {
+            for (SimaticReadDataArea area : tier.areas) {
+                if (area.contains(address)) {
+                    return area;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getPduSize() {
+        return pduSize;
+    }
+
+    public SimaticChannelTable getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Read plan builder. Channels are grouped into read areas by cost model. Gap between two channels is bridged only if
+ * reading of gap bytes is cheaper than an additional variable in request. Areas are then packed into requests limited
+ * by PDU size. When channels are changed, only areas around changed channels are planned again.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticReadPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(SimaticReadPlanner.class);
+
+    /**
+     * Build read plan
+     *
+     * @param interval Read interval [ms]
+     * @param items Channels sorted by state address
+     * @param model Cost model
+     * @param pduSize Negotiated PDU size
+     * @return Planned tier
+     */
+    public static SimaticReadTier plan(int interval, List<SimaticChannel> items, SimaticCostModel model,
+            int pduSize) {
+        final SimaticChannelIndex index = new SimaticChannelIndex();
+        for (SimaticChannel item : items) {
+            // no data for read
+            if (item.getStateAddress() != null) {
+                index.add(interval, item);
+            }
+        }
+        return plan(interval, index, null, model, pduSize);
+    }
+
+    /**
+     * Build read plan. Areas of previous plan are taken over, only areas around byte ranges changed since previous plan
+     * are planned again.
+     *
+     * @param interval Read interval [ms]
+     * @param index Indexed channels with changes since previous plan
+     * @param previous Previous tier of same read interval and PDU size, null to plan all segments
+     * @param model Cost model
+     * @param pduSize Negotiated PDU size
+     * @return Planned tier
+     */
+    public static SimaticReadTier plan(int interval, SimaticChannelIndex index, @Nullable SimaticReadTier previous,
+            SimaticCostModel model, int pduSize) {
+        final List<SimaticReadDataArea> areas = new ArrayList<SimaticReadDataArea>();
+        final int dataLimit = SimaticCostModel.getPduSize(pduSize) - SimaticIReadWriteDataArea.READ_OVERHEAD;
+        final HashMap<String, List<SimaticReadDataArea>> segments = indexSegments(previous);
+        int replanned = 0;
+
+        // areas never cross segment (area and DB number)
+        for (String segment : index.getSegments(interval)) {
+            final List<SimaticReadDataArea> previousAreas = segments.get(segment);
+            final List<int[]> changes = index.getChanges(interval, segment);
+            if (previousAreas == null) {
+                planSegment(index.getChannels(interval, segment, Integer.MIN_VALUE, Integer.MAX_VALUE), model,
+                        pduSize, dataLimit, areas);
+                replanned++;
+            } else if (changes == null) {
+                areas.addAll(previousAreas);
+            } else {
+                replanned += planRegions(interval, segment, index, previousAreas, changes, model, pduSize, dataLimit,
+                        areas);
+            }
+        }
+
+        if (previous != null && logger.isDebugEnabled()) {
+            logger.debug("Read plan: {} regions of {}ms interval planned again", replanned, interval);
+        }
+
+        return finish(interval, areas, model, pduSize);
+    }
+
+    /**
+     * Build read plan from stored areas. Each channel is placed into stored area of same read interval which contains
+     * it. Areas are shortened to their channels unless unbound areas are kept.
+     *
+     * @param interval Read interval [ms]
+     * @param items Channels sorted by state address
+     * @param spans Stored areas
+     * @param keepUnbound Keep whole stored areas, also those without channels. Used until all things are initialized
+     *            so channels of remaining things are read already.
+     * @param model Cost model
+     * @param pduSize Negotiated PDU size
+     * @return Planned tier, null if some channel is not contained in any stored area
+     */
+    public static @Nullable SimaticReadTier planFromSpans(int interval, List<SimaticChannel> items,
+            List<SimaticPlanStore.Span> spans, boolean keepUnbound, SimaticCostModel model, int pduSize) {
+        final List<SimaticPlanStore.Span> tierSpans = new ArrayList<SimaticPlanStore.Span>();
+        for (SimaticPlanStore.Span span : spans) {
+            if (span.interval == interval) {
+                tierSpans.add(span);
+            }
+        }
+
+        final SimaticReadDataArea[] areas = new SimaticReadDataArea[tierSpans.size()];
+        if (keepUnbound) {
+            for (int i = 0; i < areas.length; i++) {
+                areas[i] = new SimaticReadDataArea(tierSpans.get(i).getAddress(), pduSize);
+            }
+        }
+        int last = 0;
+        for (SimaticChannel item : items) {
+            final SimaticPLCAddress address = item.getStateAddress();
+            // no data for read
+            if (address == null) {
+                continue;
+            }
+            // channels are sorted as stored areas, search from last found area
+            int found = -1;
+            for (int i = 0; i < tierSpans.size() && found < 0; i++) {
+                final int index = (last + i) % tierSpans.size();
+                if (tierSpans.get(index).contains(address)) {
+                    found = index;
+                }
+            }
+            if (found < 0) {
+                return null;
+            }
+            last = found;
+
+            if (areas[found] == null) {
+                areas[found] = new SimaticReadDataArea(item, pduSize);
+            } else {
+                try {
+                    areas[found].addItem(item);
+                } catch (Exception e) {
+                    logger.error(e.getMessage());
+                    return null;
+                }
+            }
+        }
+
+        final List<SimaticReadDataArea> planned = new ArrayList<SimaticReadDataArea>(areas.length);
+        for (SimaticReadDataArea area : areas) {
+            if (area != null) {
+                planned.add(area);
+            }
+        }
+
+        return finish(interval, planned, model, pduSize);
+    }
+
+    /**
+     * Pack planned areas into requests and estimate cost of plan
+     */
+    private static SimaticReadTier finish(int interval, List<SimaticReadDataArea> areas, SimaticCostModel model,
+            int pduSize) {
+        final List<SimaticReadRequest> requests = pack(areas, pduSize);
+
+        double cost = 0;
+        for (SimaticReadRequest request : requests) {
+            cost += model.estimate(1, request.getRequestLength() + request.getResponseLength());
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Read plan: areas={}, requests={}, estimated cost={}ms ({})", areas.size(), requests.size(),
+                    String.format("%.2f", cost), model);
+        }
+
+        return new SimaticReadTier(interval, areas, requests, cost);
+    }
+
+    /**
+     * Index areas of plan by segment. Areas of one segment follow each other in plan.
+     */
+    private static HashMap<String, List<SimaticReadDataArea>> indexSegments(@Nullable SimaticReadTier previous) {
+        final HashMap<String, List<SimaticReadDataArea>> index = new HashMap<String, List<SimaticReadDataArea>>();
+        if (previous != null) {
+            for (SimaticReadDataArea area : previous.areas) {
+                index.computeIfAbsent(SimaticChannelIndex.getSegmentKey(area.startAddress), k -> new ArrayList<>())
+                        .add(area);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Return last area starting at or before offset. Areas are sorted by start address.
+     */
+    private static int findArea(List<SimaticReadDataArea> areas, int offset) {
+        int low = 0;
+        int high = areas.size() - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) / 2;
+            if (areas.get(middle).getStartAddress() <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Plan again areas of segment around changed byte ranges. Change affects area holding it and both neighbouring
+     * areas, gap to them may be bridged or opened now. Channels starting from first affected area to next unaffected
+     * area are planned again, other areas are taken over.
+     *
+     * @return Count of regions planned again
+     */
+    private static int planRegions(int interval, String segment, SimaticChannelIndex index,
+            List<SimaticReadDataArea> previous, List<int[]> changes, SimaticCostModel model, int pduSize,
+            int dataLimit, List<SimaticReadDataArea> out) {
+        final int count = previous.size();
+        final boolean[] affected = new boolean[count];
+        for (int[] change : changes) {
+            final int first = findArea(previous, change[0]);
+            int last = first;
+            while (last + 1 < count && previous.get(last).getStartAddress()
+                    + previous.get(last).getAddressSpaceLength() < change[1]) {
+                last++;
+            }
+            for (int i = Math.max(0, first - 1); i <= Math.min(count - 1, last + 1); i++) {
+                affected[i] = true;
+            }
+        }
+
+        int regions = 0;
+        for (int i = 0; i < count; i++) {
+            if (!affected[i]) {
+                out.add(previous.get(i));
+                continue;
+            }
+            int j = i;
+            while (j + 1 < count && affected[j + 1]) {
+                j++;
+            }
+            final int from = (i == 0) ? Integer.MIN_VALUE : previous.get(i).getStartAddress();
+            final int to = (j == count - 1) ? Integer.MAX_VALUE : previous.get(j + 1).getStartAddress();
+            final List<SimaticChannel> channels = index.getChannels(interval, segment, from, to);
+            if (!channels.isEmpty()) {
+                planSegment(channels, model, pduSize, dataLimit, out);
+            }
+            regions++;
+            i = j;
+        }
+        return regions;
+    }
+
+    /**
+     * Plan areas of one segment (same area and DB). Overlapping channels are merged into spans. Spans are then grouped
+     * into areas with minimal total cost.
+     */
+    private static void planSegment(List<SimaticChannel> segment, SimaticCostModel model, int pduSize, int dataLimit,
+            List<SimaticReadDataArea> out) {
+        final int count = segment.size();
+        final int[] spanStart = new int[count];
+        final int[] spanEnd = new int[count];
+        final int[] spanFirst = new int[count];
+        int spans = 0;
+
+        for (int i = 0; i < count; i++) {
+            final SimaticPLCAddress address = segment.get(i).getStateAddress();
+            final int start = address.getByteOffset();
+            final int end = start + address.getDataLength();
+            if (spans > 0 && start < spanEnd[spans - 1]) {
+                if (end > spanEnd[spans - 1]) {
+                    spanEnd[spans - 1] = end;
+                }
+            } else {
+                spanStart[spans] = start;
+                spanEnd[spans] = end;
+                spanFirst[spans] = i;
+                spans++;
+            }
+        }
+
+        // best[j] - minimal cost of first j spans, from[j] - first span of last area
+        final double[] best = new double[spans + 1];
+        final int[] from = new int[spans + 1];
+        for (int j = 1; j <= spans; j++) {
+            best[j] = Double.MAX_VALUE;
+            for (int i = j - 1; i >= 0; i--) {
+                final int length = spanEnd[j - 1] - spanStart[i];
+                // single span is always accepted
+                if (i < j - 1 && length > dataLimit) {
+                    break;
+                }
+                final double cost = best[i] + model.estimateArea(length, pduSize);
+                if (cost < best[j]) {
+                    best[j] = cost;
+                    from[j] = i;
+                }
+            }
+        }
+
+        // backtrack chosen areas
+        final List<SimaticReadDataArea> areas = new ArrayList<SimaticReadDataArea>();
+        for (int j = spans; j > 0; j = from[j]) {
+            final int firstItem = spanFirst[from[j]];
+            final int lastItem = (j < spans) ? spanFirst[j] : count;
+
+            final SimaticReadDataArea area = new SimaticReadDataArea(segment.get(firstItem), pduSize);
+            for (int i = firstItem + 1; i < lastItem; i++) {
+                try {
+                    area.addItem(segment.get(i));
+                } catch (Exception e) {
+                    logger.error(e.getMessage());
+                }
+            }
+            areas.add(0, area);
+        }
+
+        out.addAll(areas);
+    }
+
+    /**
+     * Pack areas into requests. Largest areas are placed first (first fit decreasing).
+     */
+    private static List<SimaticReadRequest> pack(List<SimaticReadDataArea> planned, int pduSize) {
+        final List<SimaticReadRequest> requests = new ArrayList<SimaticReadRequest>();
+        final List<SimaticReadDataArea> areas = new ArrayList<SimaticReadDataArea>(planned);
+        areas.sort(Comparator.comparingInt(SimaticReadDataArea::getAddressSpaceLength).reversed());
+
+        for (SimaticReadDataArea area : areas) {
+            SimaticReadRequest readRequest = null;
+            for (SimaticReadRequest r : requests) {
+                if (r.canAdd(area)) {
+                    readRequest = r;
+                    break;
+                }
+            }
+            if (readRequest == null) {
+                readRequest = new SimaticReadRequest(pduSize);
+                requests.add(readRequest);
+            }
+            readRequest.add(area);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.simatic.internal.libnodave.ReadRequest;
+
+/**
+ *
+ * Class holding read areas transferred in one PDU
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticReadRequest {
+    /** Request header and function parameters length **/
+    public static final int REQUEST_HEADER_LENGTH = 10 + 2;
+    /** Request length of one variable **/
+    public static final int REQUEST_ITEM_LENGTH = 12;
+    /** Response header and function parameters length **/
+    public static final int RESPONSE_HEADER_LENGTH = 12 + 2;
+    /** Response data header length of one variable **/
+    public static final int RESPONSE_ITEM_OVERHEAD = 4;
+
+    final ArrayList<SimaticReadDataArea> areas = new ArrayList<SimaticReadDataArea>();
+    final int pduSize;
+    int requestLength = REQUEST_HEADER_LENGTH;
+    int responseLength = RESPONSE_HEADER_LENGTH;
+    int dataLength = 0;
+    ReadRequest vars = null;
+    /** channel table of read plan and ordinal of first channel of each area **/
+    SimaticChannelTable table = null;
+    int[] firstOrdinals = null;
+
+    public SimaticReadRequest(int pduSize) {
+        this.pduSize = SimaticCostModel.getPduSize(pduSize);
+    }
+
+    /**
+     * Return response length of area. Odd data are followed by fill byte.
+     *
+     * @param area
+     * @return
+     */
+    static int getResponseLength(SimaticReadDataArea area) {
+        return RESPONSE_ITEM_OVERHEAD + area.getAddressSpaceLength() + (area.getAddressSpaceLength() % 2);
+    }
+
+    /**
+     * Check if area fits into request and its response
+     *
+     * @param area
+     * @return True if area can be added
+     */
+    public boolean canAdd(SimaticReadDataArea area) {
+        return requestLength + REQUEST_ITEM_LENGTH <= pduSize && responseLength + getResponseLength(area) <= pduSize;
+    }
+
+    /**
+     * Add area into request
+     *
+     * @param area
+     */
+    public void add(SimaticReadDataArea area) {
+        areas.add(area);
+        requestLength += REQUEST_ITEM_LENGTH;
+        responseLength += getResponseLength(area);
+        dataLength += area.getAddressSpaceLength();
+    }
+
+    /**
+     * Return variables of request for communication layer. Areas must not be changed after first call.
+     *
+     * @return
+     */
+    public ReadRequest getVars() {
+        if (vars == null) {
+            vars = new ReadRequest(areas.size());
+            for (int i = 0; i < areas.size(); i++) {
+                SimaticReadDataArea area = areas.get(i);
+                vars.setVar(i, area.getAreaIntFormat(), area.getDBNumber(), area.getStartAddress(),
+                        area.getAddressSpaceLength(), area.getDataBuffer());
+            }
+        }
+        return vars;
+    }
+
+    /**
+     * Bind request to channel table of read plan
+     *
+     * @param table Channel table
+     * @param firstOrdinals Ordinal of first channel of each area
+     */
+    void bind(SimaticChannelTable table, int[] firstOrdinals) {
+        this.firstOrdinals = firstOrdinals;
+        this.table = table;
+    }
+
+    /**
+     * Send read data of area into channels
+     *
+     * @param index Area index in request
+     * @param detectChanges Update only channels with changed value
+     * @param dispatcher Dispatcher of states, null to update channels directly
+     * @return Count of updated channels
+     */
+    public int updateArea(int index, boolean detectChanges, @Nullable SimaticStateDispatcher dispatcher) {
+        final SimaticReadDataArea area = areas.get(index);
+        final int updated = (table != null) ? table.update(area, firstOrdinals[index], detectChanges, dispatcher)
+                : 0;
+        area.valid = true;
+        return updated;
+    }
+
+    /**
+     * Check if last read of request was answered
+     *
+     * @return
+     */
+    public boolean isAnswered() {
+        return vars != null && vars.result != null;
+    }
+
+    public ArrayList<SimaticReadDataArea> getAreas() {
+        return areas;
+    }
+
+    public int size() {
+        return areas.size();
+    }
+
+    /**
+     * Return request length [bytes]
+     *
+     * @return
+     */
+    public int getRequestLength() {
+        return requestLength;
+    }
+
+    /**
+     * Return expected response length [bytes]
+     *
+     * @return
+     */
+    public int getResponseLength() {
+        return responseLength;
+    }
+
+    /**
+     * Return data length of all areas [bytes]
+     *
+     * @return
+     */
+    public int getAddressSpaceLength() {
+        return dataLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (SimaticReadDataArea area : areas) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(area.toString());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * Read areas and requests of one read interval. Tier is not changed after it is built.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticReadTier {
+    /** read interval [ms], 0 - read in every cycle **/
+    final int interval;
+    final SimaticReadDataArea[] areas;
+    final SimaticReadRequest[] requests;
+    /** estimated cost of all requests [ms] **/
+    final double estimatedCost;
+
+    public SimaticReadTier(int interval, List<SimaticReadDataArea> areas, List<SimaticReadRequest> requests,
+            double estimatedCost) {
+        this.interval = interval;
+        this.areas = areas.toArray(new SimaticReadDataArea[areas.size()]);
+        this.requests = requests.toArray(new SimaticReadRequest[requests.size()]);
+        this.estimatedCost = estimatedCost;
+    }
+
+    /**
+     * Return read interval [ms]. Zero means every cycle.
+     *
+     * @return
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    public List<SimaticReadDataArea> getAreas() {
+        return Collections.unmodifiableList(Arrays.asList(areas));
+    }
+
+    public List<SimaticReadRequest> getRequests() {
+        return Collections.unmodifiableList(Arrays.asList(requests));
+    }
+
+    /**
+     * Return estimated time of one read cycle [ms]
+     *
+     * @return
+     */
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /**
+     * Return requests with its areas
+     *
+     * @return
+     */
+    public String getRequestsString() {
+        StringBuilder s = new StringBuilder();
+        for (SimaticReadRequest r : requests) {
+            if (s.length() > 0) {
+                s.append(";");
+            }
+            s.append("[").append(r.toString()).append("]");
+        }
+        return s.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (SimaticReadDataArea area : areas) {
+            if (s.length() > 0) {
+                s.append(";");
+            }
+            s.append(area.toString());
+        }
+        return s.toString();
+    }
+
+    public int size() {
+        return areas.length;
+    }
+}
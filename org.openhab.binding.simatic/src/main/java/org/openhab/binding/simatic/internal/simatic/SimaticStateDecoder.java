@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import org.openhab.core.types.State;
+
+/**
+ * Channel state decoder. Decoder is compiled once during channel initialization with resolved data type, offsets
+ * and bit mask.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@FunctionalInterface
+public interface SimaticStateDecoder {
+    /**
+     * Decode state from read data
+     *
+     * @param buffer Read data
+     * @param position Position of channel data in buffer
+     * @return Channel state
+     */
+    State decode(byte[] buffer, int position);
+
+    /**
+     * Reader of integer value from read data
+     */
+    @FunctionalInterface
+    interface IntReader {
+        int read(byte[] buffer, int position);
+    }
+
+    static int getByte(byte[] buffer, int position) {
+        return buffer[position];
+    }
+
+    static int getWord(byte[] buffer, int position) {
+        return (short) (((buffer[position] & 0xFF) << 8) | (buffer[position + 1] & 0xFF));
+    }
+
+    static int getDWord(byte[] buffer, int position) {
+        return ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+    }
+}
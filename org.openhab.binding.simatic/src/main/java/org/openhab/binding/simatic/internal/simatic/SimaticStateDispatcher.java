@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * Dispatcher of channel states into openHAB. States decoded by read cycle are queued and delivered by thread of pool
+ * shared by all devices, so slow event processing does not delay reading. States of one device are delivered by one
+ * drain at a time. Only newest state of each channel is pending, it stays on position of
+ * first pending state of that channel. State of channel with minimal update interval waits until interval from last
+ * delivery elapses, so last value of a burst is always delivered.
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticStateDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(SimaticStateDispatcher.class);
+
+    /** Maximum count of channels with pending state **/
+    public static final int DEFAULT_CAPACITY = 65536;
+    /** Pool delivering states of all devices **/
+    public static final String THREAD_POOL_NAME = "simatic-dispatch";
+
+    private static class Pending {
+        State state;
+        /** earliest delivery time [ms] **/
+        final long due;
+
+        Pending(State state, long due) {
+            this.state = state;
+            this.due = due;
+        }
+    }
+
+    private final LinkedHashMap<SimaticChannel, Pending> pending = new LinkedHashMap<>();
+    /** tasks run before next delivery **/
+    private final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    private final int capacity;
+    private final ScheduledExecutorService executor;
+    /** scheduled drain and its time [ms] **/
+    private ScheduledFuture<?> drainJob = null;
+    private long drainDue = 0;
+    /** drain in progress, next one is scheduled when it finishes **/
+    private boolean draining = false;
+    private boolean disposed = false;
+
+    /** statistics of current metrics period **/
+    private int peakSize = 0;
+    private long lag = 0;
+
+    public SimaticStateDispatcher() {
+        this(ThreadPoolManager.getScheduledPool(THREAD_POOL_NAME), DEFAULT_CAPACITY);
+    }
+
+    public SimaticStateDispatcher(ScheduledExecutorService executor, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.executor = executor;
+    }
+
+    /**
+     * Add channel state. Pending state of same channel is replaced.
+     *
+     * @param channel
+     * @param state
+     * @return False if queue is full and state was rejected
+     */
+    public synchronized boolean offer(SimaticChannel channel, State state) {
+        final Pending p = pending.get(channel);
+        if (p != null) {
+            p.state = state;
+            return true;
+        }
+        if (pending.size() >= capacity) {
+            return false;
+        }
+        final long due = Math.max(System.currentTimeMillis(), channel.nextDispatch);
+        pending.put(channel, new Pending(state, due));
+        if (pending.size() > peakSize) {
+            peakSize = pending.size();
+        }
+        schedule(due);
+        return true;
+    }
+
+    /**
+     * Schedule drain unless it is already scheduled earlier. Must be called with lock held.
+     */
+    private void schedule(long due) {
+        if (disposed) {
+            return;
+        }
+        if (draining) {
+            // running drain schedules next one
+            drainDue = Math.min(drainDue, due);
+            return;
+        }
+        if (drainJob != null) {
+            if (drainDue <= due) {
+                return;
+            }
+            drainJob.cancel(false);
+        }
+        drainDue = due;
+        try {
+            drainJob = executor.schedule(this::drain, Math.max(0, due - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // dispatcher is disposed
+            drainJob = null;
+        }
+    }
+
+    /**
+     * Deliver pending states which are due
+     */
+    private void drain() {
+        final ArrayList<Map.Entry<SimaticChannel, Pending>> batch = new ArrayList<Map.Entry<SimaticChannel, Pending>>();
+        final ArrayList<Runnable> run;
+        final long now = System.currentTimeMillis();
+        synchronized (this) {
+            drainJob = null;
+            if (draining || disposed) {
+                return;
+            }
+            draining = true;
+            drainDue = Long.MAX_VALUE;
+            run = new ArrayList<Runnable>(tasks);
+            tasks.clear();
+            final Iterator<Map.Entry<SimaticChannel, Pending>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<SimaticChannel, Pending> entry = it.next();
+                if (entry.getValue().due <= now) {
+                    // next state of channel offered meanwhile is already delayed
+                    entry.getKey().nextDispatch = now + entry.getKey().getMinUpdateInterval();
+                    batch.add(entry);
+                    it.remove();
+                }
+            }
+        }
+
+        for (Runnable task : run) {
+            try {
+                task.run();
+            } catch (Exception ex) {
+                logger.error("Dispatcher task error", ex);
+            }
+        }
+
+        long maxLag = 0;
+        for (Map.Entry<SimaticChannel, Pending> entry : batch) {
+            final SimaticChannel channel = entry.getKey();
+            maxLag = Math.max(maxLag, System.currentTimeMillis() - entry.getValue().due);
+            try {
+                channel.setState(entry.getValue().state);
+            } catch (Exception ex) {
+                logger.error("{} - State dispatch error", channel.toString(), ex);
+            }
+        }
+        synchronized (this) {
+            if (maxLag > lag) {
+                lag = maxLag;
+            }
+            draining = false;
+            long next = tasks.isEmpty() ? drainDue : System.currentTimeMillis();
+            for (Pending p : pending.values()) {
+                next = Math.min(next, p.due);
+            }
+            if (next != Long.MAX_VALUE) {
+                schedule(next);
+            }
+        }
+    }
+
+    /**
+     * Run task in order with state deliveries of this dispatcher
+     *
+     * @param task
+     */
+    public synchronized void execute(Runnable task) {
+        if (disposed) {
+            return;
+        }
+        tasks.add(task);
+        schedule(System.currentTimeMillis());
+    }
+
+    public synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Return maximum queue length since last call
+     *
+     * @return
+     */
+    public synchronized int takePeakSize() {
+        final int result = peakSize;
+        peakSize = pending.size();
+        return result;
+    }
+
+    /**
+     * Return longest delay of state delivery behind its due time since last call [ms]
+     *
+     * @return
+     */
+    public synchronized long takeLag() {
+        final long result = lag;
+        lag = 0;
+        return result;
+    }
+
+    /**
+     * Drop pending states. Shared pool is not stopped.
+     */
+    public synchronized void dispose() {
+        disposed = true;
+        pending.clear();
+        tasks.clear();
+        if (drainJob != null) {
+            drainJob.cancel(false);
+            drainJob = null;
+        }
+    }
+}
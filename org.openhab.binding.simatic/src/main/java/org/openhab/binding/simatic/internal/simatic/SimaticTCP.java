@@ -11,13 +11,29 @@ package org.openhab.binding.simatic.internal.simatic;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openhab.binding.simatic.internal.libnodave.NIOInterface;
 import org.openhab.binding.simatic.internal.libnodave.Nodave;
 import org.openhab.binding.simatic.internal.libnodave.PLCinterface;
+import org.openhab.binding.simatic.internal.libnodave.ReadRequest;
+import org.openhab.binding.simatic.internal.libnodave.ResultSet;
 import org.openhab.binding.simatic.internal.libnodave.TCPConnection;
+import org.openhab.binding.simatic.internal.libnodave.WriteRequest;
 import org.openhab.binding.simatic.internal.simatic.SimaticPortState.PortStates;
+import org.openhab.core.common.NamedThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +46,14 @@ import org.slf4j.LoggerFactory;
 public class SimaticTCP extends SimaticGenericDevice {
 
     private static final Logger logger = LoggerFactory.getLogger(SimaticTCP.class);
+    /** exchanges count measured for each size during calibration **/
+    private static final int CALIBRATION_ROUNDS = 3;
+    /** device information of connected PLCs by identity **/
+    private static final Map<String, SimaticDeviceInfo> infoCache = new ConcurrentHashMap<>();
+    /** socket connect timeout [ms] **/
+    protected static final int CONNECT_TIMEOUT = 3000;
+    /** socket receive timeout [ms] **/
+    protected static final int RECEIVE_TIMEOUT = 1000;
 
     /** address */
     protected final String plcAddress;
@@ -41,11 +65,17 @@ public class SimaticTCP extends SimaticGenericDevice {
     protected TCPConnection dc;
     protected OutputStream oStream = null;
     protected InputStream iStream = null;
+    /** count of connections used for reading **/
+    protected final int connections;
+    /** use non-blocking transport served by shared selector thread **/
+    protected final boolean nio;
+    /** additional read connections **/
+    protected volatile SimaticTCPSession[] sessions = new SimaticTCPSession[0];
+    /** reader threads of additional connections **/
+    private final ExecutorService readers;
 
     /** procedure start time **/
     private long startTime;
-    /** read data buffer **/
-    byte[] buffer = null;
     /** function result **/
     int rResult, wResult;
 
@@ -67,6 +97,9 @@ public class SimaticTCP extends SimaticGenericDevice {
         this.slot = slot;
 
         this.communicationType = 3;
+        this.connections = 1;
+        this.nio = false;
+        this.readers = null;
     }
 
     /**
@@ -76,12 +109,14 @@ public class SimaticTCP extends SimaticGenericDevice {
      * @param rack
      * @param slot
      * @param communicationType
+     * @param connections
+     * @param transport
      * @param pollRate
      * @param charset
      * @param updateMode
      */
-    public SimaticTCP(String address, int rack, int slot, String communicationType, int pollRate, Charset charset,
-            SimaticUpdateMode updateMode) {
+    public SimaticTCP(String address, int rack, int slot, String communicationType, int connections, String transport,
+            int pollRate, Charset charset, SimaticUpdateMode updateMode) {
         super(pollRate, charset, updateMode);
 
         this.plcAddress = address;
@@ -95,6 +130,12 @@ public class SimaticTCP extends SimaticGenericDevice {
         } else {
             this.communicationType = 3;
         }
+
+        this.connections = Math.max(1, connections);
+        this.nio = "NIO".equalsIgnoreCase(transport);
+        this.readers = (this.connections > 1)
+                ? Executors.newFixedThreadPool(this.connections - 1, new NamedThreadFactory("simatic-reader", true))
+                : null;
     }
 
     /**
@@ -122,41 +163,216 @@ public class SimaticTCP extends SimaticGenericDevice {
         // reset connected state
         setConnected(false);
 
-        // open socket
+        // open socket. Connect slot is held only for connect and handshake, setup does not delay other devices
+        if (!enterConnecting()) {
+            tryReconnect.set(true);
+            return false;
+        }
+        final int result;
         try {
-            sock = new Socket(this.plcAddress, 102);
-            oStream = sock.getOutputStream();
-            iStream = sock.getInputStream();
-            di = new PLCinterface(oStream, iStream, "IF1", 0, Nodave.PROTOCOL_ISOTCP);
+            if (nio) {
+                di = openNIOInterface("IF1");
+            } else {
+                sock = openSocket();
+                oStream = sock.getOutputStream();
+                iStream = sock.getInputStream();
+                di = new PLCinterface(oStream, iStream, "IF1", 0, Nodave.PROTOCOL_ISOTCP);
+                di.setBlockingRead(true);
+            }
             dc = new TCPConnection(di, rack, slot, communicationType);
+            result = dc.connectPLC();
+        } catch (Exception ex) {
+            logger.error("{} - cannot connect to PLC. {}", this.toString(), ex.getMessage());
+            tryReconnect.set(true);
+            return false;
+        } finally {
+            leaveConnecting();
+        }
 
-            if (dc.connectPLC() == 0) {
-                if (logger.isInfoEnabled()) {
-                    logger.info("{} - connected. PDU size = {}B", this.toString(), dc.maxPDUlength);
-                }
-                pduSize = dc.maxPDUlength;
-                portState.setState(PortStates.LISTENING);
+        if (result != 0) {
+            logger.error("{} - cannot connect to PLC", this.toString());
+            tryReconnect.set(true);
+            return false;
+        }
+
+        try {
+            if (logger.isInfoEnabled()) {
+                logger.info("{} - connected. PDU size = {}B, parallel jobs = {}", this.toString(), dc.maxPDUlength,
+                        dc.maxParallelJobs);
+            }
+            pduSize = dc.maxPDUlength;
+            parallelJobs = dc.maxParallelJobs;
+            openSessions();
+            portState.setState(PortStates.LISTENING);
+            if (reusePlan()) {
+                logger.debug("{} - read plan reused", this.toString());
+            } else {
                 // prepare data after PDU is negotiated
                 prepareData();
-                // request device info
-                info.getInfo(dc);
-                setConnected(true);
+                // measure exchange times and plan again with calibrated cost model. Stored plan was calibrated.
+                if (!planSeeded && calibrate()) {
+                    prepareData(false);
+                }
+            }
+            // request device info, known device is refreshed after first read cycle
+            final SimaticDeviceInfo cached = infoCache.get(getIdentity());
+            if (cached != null) {
+                info.copyFrom(cached);
+                infoRefreshPending = true;
             } else {
-                logger.error("{} - cannot connect to PLC", this.toString());
-                tryReconnect.set(true);
-                return false;
+                refreshDeviceInfo();
             }
+            setConnected(true);
         } catch (Exception ex) {
             logger.error("{} - cannot connect to PLC. {}", this.toString(), ex.getMessage());
             tryReconnect.set(true);
             return false;
-        } finally {
-
         }
 
         return true;
     }
 
+    /**
+     * Return PLC identity used as key of session cache
+     *
+     * @return
+     */
+    protected String getIdentity() {
+        return plcAddress + ":" + rack + ":" + slot;
+    }
+
+    @Override
+    protected void refreshDeviceInfo() {
+        try {
+            info.getInfo(dc);
+            final SimaticDeviceInfo cached = new SimaticDeviceInfo();
+            cached.copyFrom(info);
+            infoCache.put(getIdentity(), cached);
+        } catch (Exception ex) {
+            logger.debug("{} - device info read error. {}", this.toString(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Open socket with connect timeout, disabled Nagle algorithm and receive timeout for blocking read
+     *
+     * @return
+     * @throws IOException
+     */
+    protected Socket openSocket() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(this.plcAddress, 102), CONNECT_TIMEOUT);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(RECEIVE_TIMEOUT);
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+        return socket;
+    }
+
+    /**
+     * Open non-blocking connection served by shared selector thread
+     *
+     * @param name Interface name
+     * @return
+     * @throws IOException
+     */
+    protected NIOInterface openNIOInterface(String name) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(this.plcAddress, 102), CONNECT_TIMEOUT);
+            return new NIOInterface(channel, name, 0, Nodave.PROTOCOL_ISOTCP);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Open additional read connections. Opening stops when PLC refuses connection.
+     */
+    protected void openSessions() {
+        final ArrayList<SimaticTCPSession> opened = new ArrayList<SimaticTCPSession>();
+        for (int i = 1; i < connections; i++) {
+            final SimaticTCPSession session = new SimaticTCPSession(this, i);
+            try {
+                if (session.open()) {
+                    opened.add(session);
+                    continue;
+                }
+                logger.warn("{} - additional connection {} refused by PLC", this.toString(), i);
+            } catch (IOException ex) {
+                logger.warn("{} - cannot open additional connection {} due: {}", this.toString(), i,
+                        ex.getMessage());
+                session.close();
+            }
+            break;
+        }
+        sessions = opened.toArray(new SimaticTCPSession[0]);
+
+        if (connections > 1 && logger.isInfoEnabled()) {
+            logger.info("{} - read connections opened {}/{}", this.toString(), sessions.length + 1, connections);
+        }
+    }
+
+    /**
+     * Calibrate cost model by reading shortest and longest variant of largest planned area
+     *
+     * @return True if any exchange was measured
+     */
+    protected boolean calibrate() {
+        SimaticReadDataArea largest = null;
+        for (SimaticReadTier tier : readPlan.getTiers()) {
+            for (SimaticReadDataArea area : tier.getAreas()) {
+                if (largest == null || area.getAddressSpaceLength() > largest.getAddressSpaceLength()) {
+                    largest = area;
+                }
+            }
+        }
+        if (largest == null) {
+            return false;
+        }
+
+        int measured = 0;
+        try {
+            for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+                measured += measureExchange(largest, 1);
+                if (largest.getAddressSpaceLength() > 1) {
+                    measured += measureExchange(largest, largest.getAddressSpaceLength());
+                }
+            }
+        } catch (IOException ex) {
+            logger.debug("{} - calibration failed. {}", this.toString(), ex.getMessage());
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} - calibrated cost model: {}", this.toString(), costModel);
+        }
+
+        return measured > 0;
+    }
+
+    /**
+     * Read part of area and put exchange time into cost model
+     *
+     * @return 1 if exchange succeed
+     * @throws IOException
+     */
+    private int measureExchange(SimaticReadDataArea area, int length) throws IOException {
+        final long start = System.nanoTime();
+        final int result = dc.readBytes(area.getAreaIntFormat(), area.getDBNumber(), area.getStartAddress(), length,
+                area.getDataBuffer());
+        if (result != 0) {
+            return 0;
+        }
+        costModel.addSample(SimaticReadRequest.REQUEST_HEADER_LENGTH + SimaticReadRequest.REQUEST_ITEM_LENGTH
+                + SimaticReadRequest.RESPONSE_HEADER_LENGTH + SimaticReadRequest.RESPONSE_ITEM_OVERHEAD + length,
+                System.nanoTime() - start);
+        return 1;
+    }
+
     /**
      * Close socket
      *
@@ -166,6 +382,12 @@ public class SimaticTCP extends SimaticGenericDevice {
     public void close() {
         super.close();
 
+        final SimaticTCPSession[] opened = sessions;
+        sessions = new SimaticTCPSession[0];
+        for (SimaticTCPSession session : opened) {
+            session.close();
+        }
+
         if (dc != null) {
             try {
                 dc.disconnectPLC();
@@ -196,143 +418,308 @@ public class SimaticTCP extends SimaticGenericDevice {
     }
 
     /**
-     * Write data into device stream
+     * Write data into device stream. All commands are written in one request, result of each is evaluated separately.
      *
      * @param data
-     *            Item data with compiled packet
+     *            Commands written in one request
      */
     @Override
-    protected boolean sendDataOut(SimaticWriteDataArea data) {
+    protected boolean sendDataOut(SimaticWriteRequest data) {
         if (!isConnected()) {
             logger.debug("{} - Not connected. Sent discarted.", this.toString());
             return false;
         }
 
-        if (data.getAddress().getSimaticDataType() != SimaticPLCDataTypes.BIT) {
-            if (logger.isDebugEnabled()) {
-                String datastring = "";
-                for (byte b : data.getData()) {
-                    datastring += "0x" + Integer.toHexString(b) + ",";
-                }
+        final WriteRequest vars = data.getVars();
 
-                logger.debug("{} - writeBytes(area={},db={},adr={},len={},datalen={},data={})", this.toString(),
-                        data.getAreaIntFormat(), data.getDBNumber(), data.getStartAddress(),
-                        data.getAddressSpaceLength(), data.getData().length, datastring);
+        if (logger.isDebugEnabled()) {
+            for (int i = 0; i < vars.size(); i++) {
+                logger.debug("{} - {}(area={},db={},adr={},len={},data={})", this.toString(),
+                        vars.bit[i] ? "writeBits" : "writeBytes", vars.area[i], vars.DBnum[i], vars.start[i],
+                        vars.len[i], arrayToString(vars.buffers[i], vars.buffers[i].length));
             }
+        }
 
-            try {
-                wResult = dc.writeBytes(data.getAreaIntFormat(), data.getDBNumber(), data.getStartAddress(),
-                        data.getAddressSpaceLength(), data.getData());
-                if (wResult != 0) {
-                    logger.error("{} - Write data area error (Area={}, Result=0x{}, Error={})", toString(),
-                            data.toString(), Integer.toHexString(wResult), Nodave.strerror(wResult));
-
-                    if (wResult == Nodave.RESULT_UNEXPECTED_FUNC) {
-                        tryReconnect.set(true);
-                    }
-                    return false;
-                }
-            } catch (IOException ex) {
-                logger.error("{} - Write data area error (Area={}, Error={})", toString(), data.toString(),
-                        ex.getMessage());
-                portState.setState(PortStates.RESPONSE_ERROR);
+        try {
+            wResult = dc.writeMultipleVars(vars);
+        } catch (IOException ex) {
+            logger.error("{} - Write data error (Areas={}, Error={})", toString(), data.toString(), ex.getMessage());
+            portState.setState(PortStates.RESPONSE_ERROR);
+            tryReconnect.set(true);
+
+            return false;
+        }
+
+        if (wResult != 0) {
+            logger.error("{} - Write data error (Areas={}, Result=0x{}, Error={})", toString(), data.toString(),
+                    Integer.toHexString(wResult), Nodave.strerror(wResult));
+
+            if (wResult == Nodave.RESULT_UNEXPECTED_FUNC) {
                 tryReconnect.set(true);
+            }
+            return false;
+        }
 
-                return false;
+        boolean ok = true;
+        for (int i = 0; i < vars.size(); i++) {
+            if (vars.results[i] != Nodave.RESULT_OK) {
+                logger.error("{} - Write data area error (Area={}, Result=0x{}, Error={})", toString(),
+                        data.getAreas().get(i).toString(), Integer.toHexString(vars.results[i]),
+                        Nodave.strerror(vars.results[i]));
+                ok = false;
             }
-        } else {
-            if (logger.isDebugEnabled()) {
-                String datastring = "";
-                for (byte b : data.getData()) {
-                    datastring += "0x" + Integer.toHexString(b) + ",";
+        }
+
+        return ok;
+    }
+
+    /**
+     * Read data from Simatic requests. Requests are pipelined up to count of parallel jobs negotiated with PLC.
+     *
+     * @throws SimaticReadException
+     *
+     */
+    @SuppressWarnings("null")
+    @Override
+    public void readDataRequests(List<SimaticReadRequest> requests) throws SimaticReadException {
+        startTime = System.currentTimeMillis();
+        final SimaticTCPSession[] opened = sessions;
+
+        int result;
+        try {
+            if (opened.length == 0) {
+                final ReadRequest[] vars = new ReadRequest[requests.size()];
+                for (int i = 0; i < vars.length; i++) {
+                    vars[i] = requests.get(i).getVars();
                 }
 
-                logger.debug("{} - writeBits(area={},db={},adr={},len={},datalen={},data={})", this.toString(),
-                        data.getAreaIntFormat(), data.getDBNumber(),
-                        8 * data.getAddress().getByteOffset() + data.getAddress().getBitOffset(),
-                        data.getAddressSpaceLength(), data.getData().length, datastring);
+                result = readPreemptive(vars);
+            } else {
+                result = readSharded(requests, opened);
             }
-            int result;
-            try {
-                result = dc.writeBits(data.getAreaIntFormat(), data.getDBNumber(),
-                        8 * data.getAddress().getByteOffset() + data.getAddress().getBitOffset(),
-                        data.getAddressSpaceLength(), data.getData());
-            } catch (IOException ex) {
-                logger.error("{} - Write data area error (Area={}, Error={})", toString(), data.toString(),
-                        ex.getMessage());
+            addCostSamples(requests);
+        } catch (IOException ex) {
+            if (isConnected()) {
                 portState.setState(PortStates.RESPONSE_ERROR);
                 tryReconnect.set(true);
-
-                return false;
             }
+            throw new SimaticReadException(String.format("Read data requests error (Requests=%d, Error=%s)",
+                    requests.size(), ex.getMessage()), true);
+        }
 
-            if (result != 0) {
-                logger.error("{} - Write data area error (Area={}, Result=0x{}, Error={})", toString(), data.toString(),
-                        Integer.toHexString(result), Nodave.strerror(result));
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} - Reading finished in {}ms. Requests={}, Parallel={}, Connections={}", toString(),
+                    System.currentTimeMillis() - startTime, requests.size(), dc.maxParallelJobs, opened.length + 1);
+        }
 
-                if (result == Nodave.RESULT_UNEXPECTED_FUNC) {
-                    tryReconnect.set(true);
+        String errors = null;
+        boolean fatal = false;
+
+        if (result != 0) {
+            rResult = result;
+            errors = String.format("Read data requests error (Return code=0x%s, Error=%s)",
+                    Integer.toHexString(result), Nodave.strerror(result));
+            fatal = true;
+            if (isConnected()) {
+                portState.setState(PortStates.RESPONSE_ERROR);
+                tryReconnect.set(true);
+            }
+        }
+
+        // process answered requests
+        if (!enterProcessing()) {
+            throw new SimaticReadException("Processing of read data interrupted", false);
+        }
+        try {
+            for (SimaticReadRequest request : requests) {
+                if (!request.isAnswered()) {
+                    continue;
+                }
+                try {
+                    processReadResult(request);
+                } catch (SimaticReadException e) {
+                    fatal |= e.fatal;
+                    errors = (errors == null) ? e.getMessage() : errors + "; " + e.getMessage();
                 }
-                return false;
             }
+        } finally {
+            leaveProcessing();
         }
 
-        return true;
+        if (errors != null) {
+            throw new SimaticReadException(errors, fatal);
+        }
     }
 
     /**
-     * Read data from Simatic area
+     * Put exchange time of each answered request into cost model. Pipelined request is measured from its own send to
+     * its own response.
+     */
+    private void addCostSamples(List<SimaticReadRequest> requests) {
+        for (SimaticReadRequest request : requests) {
+            final ReadRequest vars = request.getVars();
+            if (vars.result != null && vars.result.getErrorState() == 0) {
+                costModel.addSample(request.getRequestLength() + request.getResponseLength(),
+                        vars.receivedTime - vars.sentTime);
+            }
+        }
+    }
+
+    /**
+     * Read requests over main connection. Requests are read in steps of parallel jobs count and pending commands are
+     * written before each step so command waits for one exchange at most.
      *
-     * @throws SimaticReadException
+     * @return First error of communication
+     * @throws IOException
+     */
+    private int readPreemptive(ReadRequest[] vars) throws IOException {
+        final int step = Math.max(1, dc.maxParallelJobs);
+        int result = 0;
+        if (vars.length <= step) {
+            writePending();
+            return dc.readMultipleRequests(vars);
+        }
+        for (int i = 0; i < vars.length && result == 0; i += step) {
+            writePending();
+            result = dc.readMultipleRequests(Arrays.copyOfRange(vars, i, Math.min(vars.length, i + step)));
+        }
+        return result;
+    }
+
+    /**
+     * Read requests over all opened connections. Each request is assigned to connection with lowest load. Additional
+     * connections are read by reader threads, main connection by calling thread.
      *
+     * @return First error of communication
+     * @throws IOException
      */
-    @SuppressWarnings("null")
-    @Override
-    public void readDataArea(SimaticReadDataArea area) throws SimaticReadException {
-        startTime = System.currentTimeMillis();
-        if (buffer == null || buffer.length < area.getAddressSpaceLength()) {
-            buffer = new byte[area.getAddressSpaceLength()];
+    private int readSharded(List<SimaticReadRequest> requests, SimaticTCPSession[] opened) throws IOException {
+        final int count = opened.length + 1;
+        final List<List<ReadRequest>> shards = new ArrayList<List<ReadRequest>>(count);
+        final int[] load = new int[count];
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<ReadRequest>());
+        }
+        for (SimaticReadRequest request : requests) {
+            int shard = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[shard]) {
+                    shard = i;
+                }
+            }
+            shards.get(shard).add(request.getVars());
+            load[shard] += request.getRequestLength() + request.getResponseLength();
         }
 
+        final List<Future<Integer>> futures = new ArrayList<Future<Integer>>(opened.length);
+        for (int i = 1; i < count; i++) {
+            final TCPConnection connection = opened[i - 1].getConnection();
+            final ReadRequest[] vars = shards.get(i).toArray(new ReadRequest[0]);
+            if (vars.length > 0) {
+                futures.add(readers.submit(() -> connection.readMultipleRequests(vars)));
+            }
+        }
+
+        int result = 0;
+        IOException error = null;
         try {
-            rResult = dc.readBytes(area.getAreaIntFormat(), area.getDBNumber(), area.getStartAddress(),
-                    area.getAddressSpaceLength(), buffer);
+            result = readPreemptive(shards.get(0).toArray(new ReadRequest[0]));
         } catch (IOException ex) {
-            if (isConnected()) {
-                portState.setState(PortStates.RESPONSE_ERROR);
-                tryReconnect.set(true);
+            error = ex;
+        }
+
+        // wait for all connections, results are processed by calling thread
+        for (Future<Integer> future : futures) {
+            try {
+                final int r = future.get();
+                if (result == 0) {
+                    result = r;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                if (error == null) {
+                    error = new IOException("Reading interrupted");
+                }
+            } catch (ExecutionException ex) {
+                if (error == null) {
+                    error = (ex.getCause() instanceof IOException) ? (IOException) ex.getCause()
+                            : new IOException(ex.getCause());
+                }
             }
-            throw new SimaticReadException(area, ex);
         }
 
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (readers != null) {
+            readers.shutdownNow();
+        }
+    }
+
+    /**
+     * Process received result of request
+     *
+     * @throws SimaticReadException
+     */
+    private void processReadResult(SimaticReadRequest request) throws SimaticReadException {
+        final ResultSet rs = request.getVars().result;
+
+        rResult = rs.getErrorState();
         if (rResult != 0) {
-            String message = String.format("Read data area error (Area=%s, Return code=0x%s, Error=%s})",
-                    area.toString(), Integer.toHexString(rResult), Nodave.strerror(rResult));
-            if (rResult == Nodave.RESULT_UNEXPECTED_FUNC || rResult == Nodave.RESULT_READ_DATA_BUFFER_INSUFFICIENT_SPACE
-                    || rResult == Nodave.RESULT_NO_DATA_RETURNED) {
+            String message = String.format("Read data request error (Areas=%s, Return code=0x%s, Error=%s})",
+                    request.toString(), Integer.toHexString(rResult), Nodave.strerror(rResult));
+            if (rResult == Nodave.RESULT_UNEXPECTED_FUNC || rResult == Nodave.RESULT_NO_DATA_RETURNED
+                    || (rResult & 2048) != 0) {
                 if (isConnected()) {
                     portState.setState(PortStates.RESPONSE_ERROR);
                     tryReconnect.set(true);
                 }
-                throw new SimaticReadException(area, message, true);
+                throw new SimaticReadException(request, message, true);
             } else {
+                // update Thing status for all channels in request
+                for (SimaticReadDataArea area : request.getAreas()) {
+                    area.invalidate();
+                    for (SimaticChannel item : area.getItems()) {
+                        item.setError(message);
+                    }
+                }
+                throw new SimaticReadException(request, message, false);
+            }
+        }
 
+        String errors = null;
+        for (int i = 0; i < request.size(); i++) {
+            SimaticReadDataArea area = request.getAreas().get(i);
+            int result = rs.results[i].error;
+            if (result != 0) {
+                String message = String.format("Read data area error (Area=%s, Return code=0x%s, Error=%s})",
+                        area.toString(), Integer.toHexString(result), Nodave.strerror(result));
                 // update Thing status for all channels in area
+                area.invalidate();
                 for (SimaticChannel item : area.getItems()) {
                     item.setError(message);
                 }
-                throw new SimaticReadException(area, message, false);
+                errors = (errors == null) ? message : errors + "; " + message;
+                continue;
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace("{} - read {} data={}", toString(), area.toString(),
+                        arrayToString(area.getDataBuffer(), area.getAddressSpaceLength()));
+            }
+            // send changed values into openHAB
+            if (request.updateArea(i, updateMode == SimaticUpdateMode.OnChange, dispatcher) > 0) {
+                storeImage(area);
             }
         }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("{} - Reading finished in {}ms. Area={}", toString(), System.currentTimeMillis() - startTime,
-                    area.toString());
-        }
-        // get data for all items in area
-        for (SimaticChannel item : area.getItems()) {
-            // send value into openHAB
-            item.setState(buffer, area.getStartAddress());
+        if (errors != null) {
+            throw new SimaticReadException(request, errors, false);
         }
     }
 
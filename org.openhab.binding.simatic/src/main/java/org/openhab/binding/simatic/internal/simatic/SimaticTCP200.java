@@ -8,7 +8,6 @@
  */
 package org.openhab.binding.simatic.internal.simatic;
 
-import java.net.Socket;
 import java.nio.charset.Charset;
 
 import org.openhab.binding.simatic.internal.libnodave.Nodave;
@@ -60,34 +59,41 @@ public class SimaticTCP200 extends SimaticTCP {
         setConnected(false);
         tryReconnect.set(false);
 
-        // open socket
+        // open socket. Connect slot is held only for connect and handshake
+        if (!enterConnecting()) {
+            tryReconnect.set(true);
+            return false;
+        }
+        final int result;
         try {
-            sock = new Socket(this.plcAddress, 102);
+            sock = openSocket();
             oStream = sock.getOutputStream();
             iStream = sock.getInputStream();
             di = new PLCinterface(oStream, iStream, "IF1", 0, Nodave.PROTOCOL_ISOTCP);
+            di.setBlockingRead(true);
             dc = new TCP243Connection(di, rack, slot);
-
-            if (dc.connectPLC() == 0) {
-                if (logger.isInfoEnabled()) {
-                    logger.info("{} - connected", this.toString());
-                }
-                portState.setState(PortStates.LISTENING);
-
-                setConnected(true);
-            } else {
-                logger.error("{} - cannot connect to PLC", this.toString());
-                tryReconnect.set(true);
-                return false;
-            }
+            result = dc.connectPLC();
         } catch (Exception ex) {
             logger.error("{} - cannot connect to PLC due: {}", this.toString(), ex.getMessage());
             tryReconnect.set(true);
             return false;
         } finally {
+            leaveConnecting();
+        }
 
+        if (result != 0) {
+            logger.error("{} - cannot connect to PLC", this.toString());
+            tryReconnect.set(true);
+            return false;
         }
 
+        if (logger.isInfoEnabled()) {
+            logger.info("{} - connected", this.toString());
+        }
+        portState.setState(PortStates.LISTENING);
+
+        setConnected(true);
+
         return true;
     }
 }
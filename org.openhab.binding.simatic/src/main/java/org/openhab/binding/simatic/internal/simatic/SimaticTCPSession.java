@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.io.IOException;
+import java.net.Socket;
+
+import org.openhab.binding.simatic.internal.libnodave.Nodave;
+import org.openhab.binding.simatic.internal.libnodave.PLCinterface;
+import org.openhab.binding.simatic.internal.libnodave.TCPConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Additional ISO-on-TCP connection to PLC used for parallel reading
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticTCPSession {
+    private static final Logger logger = LoggerFactory.getLogger(SimaticTCPSession.class);
+
+    /** session number **/
+    final int id;
+    /** owner device **/
+    final SimaticTCP device;
+
+    protected Socket sock;
+    protected PLCinterface di;
+    protected TCPConnection dc;
+
+    public SimaticTCPSession(SimaticTCP device, int id) {
+        this.device = device;
+        this.id = id;
+    }
+
+    /**
+     * Open connection
+     *
+     * @return True if PLC accepted connection
+     * @throws IOException
+     */
+    public boolean open() throws IOException {
+        if (device.nio) {
+            di = device.openNIOInterface("IF" + (id + 1));
+        } else {
+            sock = device.openSocket();
+            di = new PLCinterface(sock.getOutputStream(), sock.getInputStream(), "IF" + (id + 1), 0,
+                    Nodave.PROTOCOL_ISOTCP);
+            di.setBlockingRead(true);
+        }
+        dc = new TCPConnection(di, device.rack, device.slot, device.communicationType);
+
+        if (dc.connectPLC() != 0) {
+            close();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Close connection
+     */
+    public void close() {
+        if (dc != null) {
+            try {
+                dc.disconnectPLC();
+            } catch (Exception ex) {
+                logger.error("{} - disconnectPLC error.", this.toString(), ex);
+            }
+            dc = null;
+        }
+        if (di != null) {
+            try {
+                di.disconnectAdapter();
+            } catch (Exception ex) {
+                logger.error("{} - disconnectAdapter error.", this.toString(), ex);
+            }
+            di = null;
+        }
+        if (sock != null) {
+            try {
+                sock.close();
+            } catch (Exception ex) {
+                logger.error("{} - socket close error.", this.toString(), ex);
+            } finally {
+                sock = null;
+            }
+        }
+    }
+
+    public TCPConnection getConnection() {
+        return dc;
+    }
+
+    @Override
+    public String toString() {
+        return device.toString() + "#" + id;
+    }
+}
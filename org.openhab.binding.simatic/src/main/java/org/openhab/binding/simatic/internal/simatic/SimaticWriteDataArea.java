@@ -37,6 +37,9 @@ public class SimaticWriteDataArea implements SimaticIReadWriteDataArea {
 
     protected SimaticPLCAddress address;
 
+    /** time of command creation [ns] **/
+    protected final long created = System.nanoTime();
+
     public static SimaticWriteDataArea create(Command command, SimaticChannel channel, int pduSize, Charset charset)
             throws Exception {
 
@@ -219,6 +222,15 @@ public class SimaticWriteDataArea implements SimaticIReadWriteDataArea {
         return itemData;
     }
 
+    /**
+     * Return time of command creation [ns]
+     *
+     * @return
+     */
+    public long getCreated() {
+        return created;
+    }
+
     /**
      * Return item address
      *
@@ -331,6 +343,11 @@ public class SimaticWriteDataArea implements SimaticIReadWriteDataArea {
                         - itemAddress.getByteOffset() > dataLimit);
     }
 
+    @Override
+    public String toString() {
+        return address.toString();
+    }
+
     public void insert(SimaticWriteDataArea data) {
         if (this.getStartAddress() > data.getStartAddress()) {
             // new length
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import java.util.ArrayList;
+
+import org.openhab.binding.simatic.internal.libnodave.WriteRequest;
+
+/**
+ *
+ * Class holding write commands transferred in one PDU
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+public class SimaticWriteRequest {
+    /** Request header and function parameters length **/
+    public static final int REQUEST_HEADER_LENGTH = 10 + 2;
+    /** Request parameters and data header length of one variable **/
+    public static final int REQUEST_ITEM_OVERHEAD = 12 + 4;
+    /** Response header and function parameters length **/
+    public static final int RESPONSE_HEADER_LENGTH = 12 + 2;
+    /** Response length of one variable **/
+    public static final int RESPONSE_ITEM_LENGTH = 1;
+
+    final ArrayList<SimaticWriteDataArea> areas = new ArrayList<SimaticWriteDataArea>();
+    final int pduSize;
+    int requestLength = REQUEST_HEADER_LENGTH;
+    int responseLength = RESPONSE_HEADER_LENGTH;
+    WriteRequest vars = null;
+
+    public SimaticWriteRequest(int pduSize) {
+        this.pduSize = SimaticCostModel.getPduSize(pduSize);
+    }
+
+    /**
+     * Return request length of area. Odd data are followed by fill byte.
+     *
+     * @param area
+     * @return
+     */
+    static int getRequestLength(SimaticWriteDataArea area) {
+        return REQUEST_ITEM_OVERHEAD + area.getData().length + (area.getData().length % 2);
+    }
+
+    /**
+     * Check if area fits into request and its response. First area is accepted always.
+     *
+     * @param area
+     * @return True if area can be added
+     */
+    public boolean canAdd(SimaticWriteDataArea area) {
+        return areas.isEmpty() || (requestLength + getRequestLength(area) <= pduSize
+                && responseLength + RESPONSE_ITEM_LENGTH <= pduSize);
+    }
+
+    /**
+     * Add area into request
+     *
+     * @param area
+     */
+    public void add(SimaticWriteDataArea area) {
+        areas.add(area);
+        requestLength += getRequestLength(area);
+        responseLength += RESPONSE_ITEM_LENGTH;
+        vars = null;
+    }
+
+    /**
+     * Return variables of request for communication layer
+     *
+     * @return
+     */
+    public WriteRequest getVars() {
+        if (vars == null) {
+            vars = new WriteRequest(areas.size());
+            for (int i = 0; i < areas.size(); i++) {
+                SimaticWriteDataArea area = areas.get(i);
+                if (area.getAddress().getSimaticDataType() == SimaticPLCDataTypes.BIT) {
+                    vars.setBitVar(i, area.getAreaIntFormat(), area.getDBNumber(),
+                            8 * area.getAddress().getByteOffset() + area.getAddress().getBitOffset(),
+                            area.getAddressSpaceLength(), area.getData());
+                } else {
+                    vars.setVar(i, area.getAreaIntFormat(), area.getDBNumber(), area.getStartAddress(),
+                            area.getAddressSpaceLength(), area.getData());
+                }
+            }
+        }
+        return vars;
+    }
+
+    public ArrayList<SimaticWriteDataArea> getAreas() {
+        return areas;
+    }
+
+    public int size() {
+        return areas.size();
+    }
+
+    public boolean isEmpty() {
+        return areas.isEmpty();
+    }
+
+    /**
+     * Return request length [bytes]
+     *
+     * @return
+     */
+    public int getRequestLength() {
+        return requestLength;
+    }
+
+    /**
+     * Return expected response length [bytes]
+     *
+     * @return
+     */
+    public int getResponseLength() {
+        return responseLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (SimaticWriteDataArea area : areas) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(area.toString());
+        }
+        return sb.toString();
+    }
+}
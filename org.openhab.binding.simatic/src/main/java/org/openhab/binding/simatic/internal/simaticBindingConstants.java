@@ -37,12 +37,23 @@ public class SimaticBindingConstants {
     public static final String CHANNEL_TAG_COUNT = "chTagCountTypeID";
     public static final String CHANNEL_REQUESTS = "chRequestsTypeID";
     public static final String CHANNEL_BYTES = "chBytesTypeID";
+    public static final String CHANNEL_COMMAND_LATENCY = "chCommandLatencyTypeID";
+    public static final String CHANNEL_COMMAND_QUEUE = "chCommandQueueTypeID";
+    public static final String CHANNEL_COMMANDS_COALESCED = "chCommandsCoalescedTypeID";
+    public static final String CHANNEL_COMMANDS_REJECTED = "chCommandsRejectedTypeID";
+    public static final String CHANNEL_CYCLE_JITTER = "chCycleJitterTypeID";
+    public static final String CHANNEL_DISPATCH_QUEUE = "chDispatchQueueTypeID";
+    public static final String CHANNEL_DISPATCH_LAG = "chDispatchLagTypeID";
 
     // List of all Property IDs
     public static final String PROPERTY_BINDING_VERSION = "bindingVersion";
     public static final String PROPERTY_PDU = "pdu";
+    public static final String PROPERTY_PARALLEL_JOBS = "parallelJobs";
     public static final String PROPERTY_AREAS_COUNT = "areasCount";
     public static final String PROPERTY_AREAS = "areas";
+    public static final String PROPERTY_READ_PLAN = "readPlan";
+    public static final String PROPERTY_READ_PLAN_COST = "readPlanCost";
+    public static final String PROPERTY_SNAPSHOT = "snapshot";
     public static final String PROPERTY_PLC_NAME = "plcName";
     public static final String PROPERTY_MODULE_NAME = "moduleName";
     public static final String PROPERTY_MODULE_NAME_TYPE = "moduleNameType";
@@ -57,6 +68,20 @@ public class SimaticBindingConstants {
     public static final ChannelTypeUID CHANNEL_TYPE_TAG_COUNT = new ChannelTypeUID(BINDING_ID, CHANNEL_TAG_COUNT);
     public static final ChannelTypeUID CHANNEL_TYPE_REQUESTS = new ChannelTypeUID(BINDING_ID, CHANNEL_REQUESTS);
     public static final ChannelTypeUID CHANNEL_TYPE_BYTES = new ChannelTypeUID(BINDING_ID, CHANNEL_BYTES);
+    public static final ChannelTypeUID CHANNEL_TYPE_COMMAND_LATENCY = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_COMMAND_LATENCY);
+    public static final ChannelTypeUID CHANNEL_TYPE_COMMAND_QUEUE = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_COMMAND_QUEUE);
+    public static final ChannelTypeUID CHANNEL_TYPE_COMMANDS_COALESCED = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_COMMANDS_COALESCED);
+    public static final ChannelTypeUID CHANNEL_TYPE_COMMANDS_REJECTED = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_COMMANDS_REJECTED);
+    public static final ChannelTypeUID CHANNEL_TYPE_CYCLE_JITTER = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_CYCLE_JITTER);
+    public static final ChannelTypeUID CHANNEL_TYPE_DISPATCH_QUEUE = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_DISPATCH_QUEUE);
+    public static final ChannelTypeUID CHANNEL_TYPE_DISPATCH_LAG = new ChannelTypeUID(BINDING_ID,
+            CHANNEL_DISPATCH_LAG);
 
     // List of all Thing Channel ids
     public static final String CHANNEL_NUMBER = "chNumber";
@@ -0,0 +1,143 @@
+/*
+ Part of Libnodave, a free communication libray for Siemens S7 300/400 via
+ the MPI adapter 6ES7 972-0CA22-0XAC
+ or  MPI adapter 6ES7 972-0CA33-0XAC
+ or  MPI adapter 6ES7 972-0CA11-0XAC.
+
+ (C) Thomas Hergenhahn (thomas.hergenhahn@web.de) 2002.
+
+ Libnodave is free software; you can redistribute it and/or modify
+ it under the terms of the GNU Library General Public License as published by
+ the Free Software Foundation; either version 2, or (at your option)
+ any later version.
+
+ Libnodave is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU Library General Public License
+ along with this; see the file COPYING.  If not, write to
+ the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+*/
+package org.openhab.binding.simatic.internal.libnodave;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of TPKT frame splitting in {@link NIOSelector}
+ *
+ */
+@NonNullByDefault
+public class NIOSelectorTest {
+    private final List<byte[]> frames = new ArrayList<byte[]>();
+
+    private final NIOSelector.FrameHandler handler = new NIOSelector.FrameHandler() {
+        @Override
+        public void onFrame(byte[] frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void onClosed(IOException ex) {
+        }
+    };
+
+    private static byte[] frame(int length, int fill) {
+        final byte[] frame = new byte[length];
+        frame[0] = 3;
+        frame[2] = (byte) (length >> 8);
+        frame[3] = (byte) length;
+        for (int i = 4; i < length; i++) {
+            frame[i] = (byte) fill;
+        }
+        return frame;
+    }
+
+    private static ByteBuffer received(ByteBuffer buffer, byte[] data, int offset, int length) {
+        buffer.put(data, offset, length);
+        return buffer;
+    }
+
+    @Test
+    public void completeFramesArePassed() throws IOException {
+        final byte[] first = frame(9, 1);
+        final byte[] second = frame(8, 2);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer = received(buffer, first, 0, first.length);
+        buffer = received(buffer, second, 0, second.length);
+
+        buffer = NIOSelector.takeFrames(buffer, handler);
+
+        assertEquals(2, frames.size());
+        assertArrayEquals(first, frames.get(0));
+        assertArrayEquals(second, frames.get(1));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void splitFrameWaitsForRest() throws IOException {
+        final byte[] data = frame(9, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        // header is not complete
+        buffer = NIOSelector.takeFrames(received(buffer, data, 0, 3), handler);
+        assertEquals(0, frames.size());
+        // data are not complete
+        buffer = NIOSelector.takeFrames(received(buffer, data, 3, 3), handler);
+        assertEquals(0, frames.size());
+        buffer = NIOSelector.takeFrames(received(buffer, data, 6, 3), handler);
+
+        assertEquals(1, frames.size());
+        assertArrayEquals(data, frames.get(0));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void restOfNextFrameIsKept() throws IOException {
+        final byte[] first = frame(8, 1);
+        final byte[] second = frame(10, 2);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer = received(buffer, first, 0, first.length);
+        buffer = received(buffer, second, 0, 5);
+
+        buffer = NIOSelector.takeFrames(buffer, handler);
+        assertEquals(1, frames.size());
+        assertEquals(5, buffer.position());
+
+        buffer = NIOSelector.takeFrames(received(buffer, second, 5, 5), handler);
+        assertEquals(2, frames.size());
+        assertArrayEquals(second, frames.get(1));
+    }
+
+    @Test
+    public void bufferGrowsForLargeFrame() throws IOException {
+        final byte[] data = frame(100, 7);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer = NIOSelector.takeFrames(received(buffer, data, 0, 16), handler);
+
+        assertTrue(buffer.capacity() >= data.length);
+        assertEquals(16, buffer.position());
+
+        buffer = NIOSelector.takeFrames(received(buffer, data, 16, data.length - 16), handler);
+        assertEquals(1, frames.size());
+        assertArrayEquals(data, frames.get(0));
+    }
+
+    @Test
+    public void invalidLengthIsRejected() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put(new byte[] { 3, 0, 0, 2 });
+
+        assertThrows(IOException.class, () -> NIOSelector.takeFrames(buffer, handler));
+        assertEquals(0, frames.size());
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.types.State;
+
+/**
+ *
+ * Tests of change detection and deadbands of {@link SimaticChannelTable}
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@NonNullByDefault
+public class SimaticChannelTableTest {
+    private static final int PDU_SIZE = 240;
+
+    /** channels offered to dispatcher by last update **/
+    private final List<SimaticChannel> offered = new ArrayList<SimaticChannel>();
+
+    private final SimaticStateDispatcher dispatcher = new SimaticStateDispatcher(mock(ScheduledExecutorService.class),
+            SimaticStateDispatcher.DEFAULT_CAPACITY) {
+        @Override
+        public synchronized boolean offer(SimaticChannel channel, State state) {
+            offered.add(channel);
+            return true;
+        }
+    };
+
+    private final List<SimaticChannel> channels = SimaticTestChannels.create("DB1.DBW0", "DB1.DBW2", "DB1.DBW4",
+            "DB1.DBX6.0");
+    private final SimaticReadRequest request;
+
+    public SimaticChannelTableTest() {
+        // absolute, relative and both deadbands
+        channels.get(0).deadband = 5.0;
+        channels.get(1).deadbandPercent = 10.0;
+        channels.get(2).deadband = 5.0;
+        channels.get(2).deadbandPercent = 10.0;
+        final SimaticReadTier tier = SimaticReadPlanner.plan(1000, channels, new SimaticCostModel(), PDU_SIZE);
+        new SimaticChannelTable(List.of(tier), null);
+        request = tier.getRequests().get(0);
+    }
+
+    /**
+     * Write area data and update channels
+     *
+     * @param first Word of channel with absolute deadband
+     * @param second Word of channel with relative deadband
+     * @param third Word of channel with both deadbands
+     * @param bit Value of bit channel
+     * @return Updated channels
+     */
+    private List<SimaticChannel> read(int first, int second, int third, boolean bit) {
+        final byte[] data = request.getAreas().get(0).getDataBuffer();
+        final int[] words = { first, second, third };
+        for (int i = 0; i < words.length; i++) {
+            data[2 * i] = (byte) (words[i] >> 8);
+            data[2 * i + 1] = (byte) words[i];
+        }
+        data[6] = (byte) (bit ? 1 : 0);
+        offered.clear();
+        request.updateArea(0, true, dispatcher);
+        return new ArrayList<SimaticChannel>(offered);
+    }
+
+    @Test
+    public void firstUpdateSendsAllChannels() {
+        assertEquals(channels, read(100, 100, 100, false));
+    }
+
+    @Test
+    public void unchangedDataAreNotSent() {
+        read(100, 100, 100, false);
+        assertEquals(List.of(), read(100, 100, 100, false));
+        assertEquals(List.of(channels.get(3)), read(100, 100, 100, true));
+    }
+
+    @Test
+    public void absoluteDeadbandIsMeasuredFromLastSentValue() {
+        read(100, 100, 100, false);
+        assertEquals(List.of(), read(103, 100, 100, false));
+        // change against sent value exceeds deadband
+        assertEquals(List.of(channels.get(0)), read(106, 100, 100, false));
+        assertEquals(List.of(), read(104, 100, 100, false));
+    }
+
+    @Test
+    public void relativeDeadband() {
+        read(100, 100, 100, false);
+        assertEquals(List.of(), read(100, 109, 100, false));
+        assertEquals(List.of(channels.get(1)), read(100, 111, 100, false));
+    }
+
+    @Test
+    public void valueIsHeldOnlyWithinBothDeadbands() {
+        read(100, 100, 100, false);
+        // within both deadbands
+        assertEquals(List.of(), read(100, 100, 104, false));
+        // within relative deadband only
+        assertEquals(List.of(channels.get(2)), read(100, 100, 107, false));
+    }
+
+    @Test
+    public void invalidatedAreaSendsAllChannels() {
+        read(100, 100, 100, false);
+        request.getAreas().get(0).invalidate();
+        assertEquals(channels, read(100, 100, 100, false));
+    }
+
+    @Test
+    public void withinDeadband() {
+        final SimaticChannelTable table = new SimaticChannelTable(
+                List.of(SimaticReadPlanner.plan(1000, channels, new SimaticCostModel(), PDU_SIZE)), null);
+        final int both = channels.get(2).getOrdinal();
+        table.sent[both] = -100;
+        assertTrue(table.isWithinDeadband(both, -96));
+        assertFalse(table.isWithinDeadband(both, -94));
+        assertFalse(table.isWithinDeadband(both, -106));
+    }
+}
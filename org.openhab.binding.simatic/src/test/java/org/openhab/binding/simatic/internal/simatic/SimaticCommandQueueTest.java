@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Tests of {@link SimaticCommandQueue}
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@NonNullByDefault
+public class SimaticCommandQueueTest {
+    private static final int PDU_SIZE = 240;
+
+    private static SimaticWriteDataArea word(int db, int offset, int value) {
+        return new SimaticWriteDataArea(new SimaticPLCAddress(db, "W", offset),
+                new byte[] { (byte) (value >> 8), (byte) value }, PDU_SIZE);
+    }
+
+    private static SimaticWriteDataArea bit(int db, int offset, int bit, boolean value) {
+        return new SimaticWriteDataArea(new SimaticPLCAddress(db, offset, bit), new byte[] { (byte) (value ? 1 : 0) },
+                PDU_SIZE);
+    }
+
+    @Test
+    public void commandOfSameAddressIsReplaced() {
+        final SimaticCommandQueue queue = new SimaticCommandQueue();
+        final SimaticWriteDataArea last = word(1, 0, 3);
+        assertTrue(queue.offer(word(1, 0, 1)));
+        assertTrue(queue.offer(word(1, 2, 2)));
+        assertTrue(queue.offer(last));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.takeCoalesced());
+        final SimaticWriteRequest request = queue.poll(PDU_SIZE);
+        // replaced command keeps its position
+        assertSame(last, request.getAreas().get(0));
+        assertEquals(2, request.getAreas().get(1).getStartAddress());
+    }
+
+    @Test
+    public void overlappingCommandIsNotPassed() {
+        final SimaticCommandQueue queue = new SimaticCommandQueue();
+        final SimaticWriteDataArea overlapping = new SimaticWriteDataArea(new SimaticPLCAddress(1, "B", 1),
+                new byte[] { 5 }, PDU_SIZE);
+        queue.offer(word(1, 0, 1));
+        queue.offer(overlapping);
+        queue.offer(word(1, 0, 3));
+
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.takeCoalesced());
+        final SimaticWriteRequest request = queue.poll(PDU_SIZE);
+        assertSame(overlapping, request.getAreas().get(1));
+    }
+
+    @Test
+    public void bitsOfSameByteDoNotOverlap() {
+        final SimaticCommandQueue queue = new SimaticCommandQueue();
+        queue.offer(bit(1, 0, 1, true));
+        queue.offer(bit(1, 0, 2, true));
+        queue.offer(bit(1, 0, 1, false));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.takeCoalesced());
+        assertFalse(SimaticCommandQueue.isOverlapping(bit(1, 0, 1, true), bit(1, 0, 2, true)));
+        assertTrue(SimaticCommandQueue.isOverlapping(bit(1, 0, 1, true), word(1, 0, 0)));
+        assertFalse(SimaticCommandQueue.isOverlapping(word(1, 0, 0), word(2, 0, 0)));
+    }
+
+    @Test
+    public void fullQueueRejectsNewAddress() {
+        final SimaticCommandQueue queue = new SimaticCommandQueue(2);
+        assertTrue(queue.offer(word(1, 0, 1)));
+        assertTrue(queue.offer(word(1, 2, 1)));
+        assertFalse(queue.offer(word(1, 4, 1)));
+        // pending command is still replaced
+        assertTrue(queue.offer(word(1, 0, 2)));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.takeRejected());
+        assertEquals(0, queue.takeRejected());
+        assertEquals(2, queue.takePeakSize());
+    }
+
+    @Test
+    public void pollTakesCommandsFittingIntoPdu() {
+        final SimaticCommandQueue queue = new SimaticCommandQueue();
+        final int count = 30;
+        for (int i = 0; i < count; i++) {
+            queue.offer(word(1, 2 * i, i));
+        }
+
+        int taken = 0;
+        int offset = 0;
+        SimaticWriteRequest request;
+        while ((request = queue.poll(PDU_SIZE)) != null) {
+            assertTrue(request.getRequestLength() <= PDU_SIZE);
+            for (SimaticWriteDataArea area : request.getAreas()) {
+                // commands are written in order of arrival
+                assertEquals(offset, area.getStartAddress());
+                offset += 2;
+            }
+            taken += request.size();
+        }
+        assertEquals(count, taken);
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.library.types.DecimalType;
+
+/**
+ *
+ * Tests of {@link SimaticImageSnapshot}
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@NonNullByDefault
+public class SimaticImageSnapshotTest {
+    private static final int PDU_SIZE = 240;
+
+    @TempDir
+    @NonNullByDefault({})
+    Path folder;
+
+    private final SimaticChannel first = SimaticTestChannels.create("DB1.DBW0");
+    private final SimaticChannel second = SimaticTestChannels.create("DB1.DBW2");
+    private final SimaticChannel marker = SimaticTestChannels.create("MW100");
+    private final List<SimaticReadTier> tiers = List.of(SimaticReadPlanner.plan(1000,
+            List.of(first, second, marker), new SimaticCostModel(), PDU_SIZE));
+
+    private SimaticReadDataArea getArea(SimaticChannel channel) {
+        for (SimaticReadDataArea area : tiers.get(0).getAreas()) {
+            if (area.getItems().contains(channel)) {
+                return area;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Write read data of area holding channel
+     */
+    private SimaticReadDataArea read(SimaticChannel channel, int value) {
+        final SimaticReadDataArea area = getArea(channel);
+        final byte[] data = area.getDataBuffer();
+        final int position = channel.getStateAddress().getByteOffset() - area.getStartAddress();
+        data[position] = (byte) (value >> 8);
+        data[position + 1] = (byte) value;
+        area.valid = true;
+        return area;
+    }
+
+    @Test
+    public void missingSnapshotIsNotLoaded() {
+        assertFalse(new SimaticImageSnapshot(folder.resolve("none.bin")).load());
+    }
+
+    @Test
+    public void readDataAreRestored() {
+        final Path file = folder.resolve("image.bin");
+        final SimaticImageSnapshot snapshot = new SimaticImageSnapshot(file);
+        final long before = System.currentTimeMillis();
+        snapshot.setLayout(tiers);
+        read(first, 1234);
+        snapshot.update(read(second, -2));
+        snapshot.close();
+
+        final SimaticImageSnapshot loaded = new SimaticImageSnapshot(file);
+        assertTrue(loaded.load());
+        assertEquals(new DecimalType(1234), loaded.getState(first));
+        assertEquals(new DecimalType(-2), loaded.getState(second));
+        // area was never read
+        assertNull(loaded.getState(marker));
+        assertTrue(loaded.getStoredTime() >= before);
+    }
+
+    @Test
+    public void layoutKeepsStoredData() throws InterruptedException {
+        final Path file = folder.resolve("image.bin");
+        final SimaticImageSnapshot snapshot = new SimaticImageSnapshot(file);
+        snapshot.setLayout(tiers);
+        snapshot.update(read(marker, 77));
+        snapshot.close();
+
+        final SimaticImageSnapshot restarted = new SimaticImageSnapshot(file);
+        assertTrue(restarted.load());
+        final long stored = restarted.getStoredTime();
+        // layout written later does not change time of data
+        Thread.sleep(10);
+        // areas are not read after restart
+        for (SimaticReadDataArea area : tiers.get(0).getAreas()) {
+            area.invalidate();
+        }
+        restarted.setLayout(tiers);
+        restarted.setLayout(tiers);
+        restarted.close();
+
+        final SimaticImageSnapshot loaded = new SimaticImageSnapshot(file);
+        assertTrue(loaded.load());
+        assertEquals(new DecimalType(77), loaded.getState(marker));
+        assertNull(loaded.getState(first));
+        assertEquals(stored, loaded.getStoredTime());
+    }
+
+    @Test
+    public void corruptedSnapshotIsNotLoaded() throws IOException {
+        final Path file = folder.resolve("image.bin");
+        final SimaticImageSnapshot snapshot = new SimaticImageSnapshot(file);
+        snapshot.setLayout(tiers);
+        snapshot.update(read(first, 1));
+        snapshot.close();
+        final byte[] valid = Files.readAllBytes(file);
+
+        // areas count out of file
+        final ByteBuffer count = ByteBuffer.wrap(valid.clone());
+        count.putInt(SimaticImageSnapshot.COUNT_POSITION, Integer.MAX_VALUE);
+        Files.write(file, count.array());
+        assertFalse(new SimaticImageSnapshot(file).load());
+
+        // area data out of file
+        final ByteBuffer length = ByteBuffer.wrap(valid.clone());
+        for (int i = 0; i < length.getInt(SimaticImageSnapshot.COUNT_POSITION); i++) {
+            length.putInt(SimaticImageSnapshot.HEADER_LENGTH + i * SimaticImageSnapshot.DESCRIPTOR_LENGTH + 12,
+                    Integer.MAX_VALUE - 8);
+        }
+        Files.write(file, length.array());
+        final SimaticImageSnapshot loaded = new SimaticImageSnapshot(file);
+        assertFalse(loaded.load());
+        assertEquals(0, loaded.getStoredTime());
+    }
+
+    @Test
+    public void unknownFormatIsNotLoaded() throws IOException {
+        final Path file = folder.resolve("image.bin");
+        Files.write(file, new byte[64]);
+        assertFalse(new SimaticImageSnapshot(file).load());
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * Tests of {@link SimaticReadPlanner}
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@NonNullByDefault
+public class SimaticReadPlannerTest {
+    private static final int INTERVAL = 1000;
+    private static final int PDU_SIZE = 240;
+
+    private final SimaticCostModel model = new SimaticCostModel();
+
+    private SimaticReadTier plan(List<SimaticChannel> channels) {
+        return SimaticReadPlanner.plan(INTERVAL, channels, model, PDU_SIZE);
+    }
+
+    @Test
+    public void nearChannelsShareArea() {
+        final SimaticReadTier tier = plan(SimaticTestChannels.create("DB1.DBW0", "DB1.DBW4", "DB1.DBD6"));
+
+        assertEquals(1, tier.getAreas().size());
+        final SimaticReadDataArea area = tier.getAreas().get(0);
+        assertEquals(0, area.getStartAddress());
+        assertEquals(10, area.getAddressSpaceLength());
+        assertEquals(3, area.getItems().size());
+    }
+
+    @Test
+    public void distantChannelsAreReadSeparately() {
+        final SimaticReadTier tier = plan(SimaticTestChannels.create("DB1.DBW0", "DB1.DBW100"));
+
+        assertEquals(2, tier.getAreas().size());
+        assertEquals(2, tier.getAreas().get(0).getAddressSpaceLength());
+        assertEquals(2, tier.getAreas().get(1).getAddressSpaceLength());
+        // both areas are read by one request
+        assertEquals(1, tier.getRequests().size());
+    }
+
+    @Test
+    public void areaDoesNotCrossSegment() {
+        final SimaticReadTier tier = plan(SimaticTestChannels.create("DB1.DBW0", "DB2.DBW2", "MW0", "MW2"));
+
+        assertEquals(3, tier.getAreas().size());
+        for (SimaticReadDataArea area : tier.getAreas()) {
+            for (SimaticChannel channel : area.getItems()) {
+                assertTrue(area.contains(channel.getStateAddress()));
+            }
+        }
+    }
+
+    @Test
+    public void overlappingChannelsShareArea() {
+        final SimaticReadTier tier = plan(SimaticTestChannels.create("DB1.DBD0", "DB1.DBW2", "DB1.DBX3.1"));
+
+        assertEquals(1, tier.getAreas().size());
+        assertEquals(4, tier.getAreas().get(0).getAddressSpaceLength());
+    }
+
+    @Test
+    public void requestsFitIntoPdu() {
+        final List<String> addresses = new ArrayList<String>();
+        for (int db = 1; db <= 40; db++) {
+            addresses.add("DB" + db + ".DBW0");
+            addresses.add("DB" + db + ".DBD100");
+            addresses.add("DB" + db + ".DBB190");
+        }
+        final List<SimaticChannel> channels = SimaticTestChannels.create(addresses.toArray(new String[0]));
+        final SimaticReadTier tier = plan(channels);
+
+        int planned = 0;
+        for (SimaticReadRequest request : tier.getRequests()) {
+            assertTrue(request.size() <= SimaticCostModel.getMaxItems(PDU_SIZE));
+            assertTrue(request.getRequestLength() <= PDU_SIZE);
+            assertTrue(request.getResponseLength() <= PDU_SIZE);
+            for (SimaticReadDataArea area : request.getAreas()) {
+                planned += area.getItems().size();
+            }
+        }
+        assertEquals(channels.size(), planned);
+    }
+
+    @Test
+    public void unchangedSegmentsAreTakenOver() {
+        final SimaticChannelIndex index = new SimaticChannelIndex();
+        for (SimaticChannel channel : SimaticTestChannels.create("DB1.DBW0", "DB1.DBW100", "DB2.DBW0")) {
+            index.add(INTERVAL, channel);
+        }
+        final SimaticReadTier first = SimaticReadPlanner.plan(INTERVAL, index, null, model, PDU_SIZE);
+        index.clearChanges();
+
+        index.add(INTERVAL, SimaticTestChannels.create("DB2.DBW2"));
+        final SimaticReadTier second = SimaticReadPlanner.plan(INTERVAL, index, first, model, PDU_SIZE);
+
+        assertEquals(3, second.getAreas().size());
+        int same = 0;
+        for (SimaticReadDataArea area : second.getAreas()) {
+            if (first.getAreas().contains(area)) {
+                same++;
+                assertEquals(1, area.getDBNumber());
+            } else {
+                assertEquals(2, area.getDBNumber());
+                assertEquals(2, area.getItems().size());
+            }
+        }
+        assertEquals(2, same);
+    }
+
+    @Test
+    public void removedChannelShortensArea() {
+        final SimaticChannelIndex index = new SimaticChannelIndex();
+        final List<SimaticChannel> channels = SimaticTestChannels.create("DB1.DBW0", "DB1.DBW4");
+        for (SimaticChannel channel : channels) {
+            index.add(INTERVAL, channel);
+        }
+        final SimaticReadTier first = SimaticReadPlanner.plan(INTERVAL, index, null, model, PDU_SIZE);
+        index.clearChanges();
+
+        index.remove(INTERVAL, channels.get(1));
+        final SimaticReadTier second = SimaticReadPlanner.plan(INTERVAL, index, first, model, PDU_SIZE);
+
+        assertEquals(6, first.getAreas().get(0).getAddressSpaceLength());
+        assertEquals(1, second.getAreas().size());
+        assertEquals(2, second.getAreas().get(0).getAddressSpaceLength());
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010-2016, openHAB.org and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.simatic.internal.simatic;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.simatic.internal.handler.SimaticGenericHandler;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.type.ChannelTypeUID;
+
+/**
+ *
+ * Channels for tests
+ *
+ * @author Vita Tucek
+ * @since 1.14.0
+ */
+@NonNullByDefault
+class SimaticTestChannels {
+    private static int count = 0;
+
+    /**
+     * Create initialized number channel
+     *
+     * @param stateAddress Address in Simatic syntax
+     * @return
+     */
+    static SimaticChannel create(String stateAddress) {
+        final SimaticChannel channel = new SimaticChannel();
+        channel.stateAddress = stateAddress;
+        channel.setChannelId(new ChannelUID("simatic:generic:plc:test:ch" + (++count)));
+        channel.setChannelType(new ChannelTypeUID("simatic", "chNumber"));
+        if (!channel.init(new SimaticGenericHandler(mock(Thing.class)))) {
+            throw new IllegalArgumentException(channel.getError());
+        }
+        return channel;
+    }
+
+    /**
+     * Create initialized number channels sorted by address
+     *
+     * @param stateAddresses Addresses in Simatic syntax
+     * @return
+     */
+    static List<SimaticChannel> create(String... stateAddresses) {
+        final List<SimaticChannel> channels = new ArrayList<SimaticChannel>();
+        for (String address : stateAddresses) {
+            channels.add(create(address));
+        }
+        channels.sort((a, b) -> a.getStateAddress().compareTo(b.getStateAddress()));
+        return channels;
+    }
+}